@@ -0,0 +1,137 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Board.GameResult;
+import ai.EngineResult;
+
+/**
+ * Encerra partidas já decididas sem jogá-las até o fim. Vitória quando os
+ * dois motores concordam, por {@code resignMoves} lances seguidos de cada
+ * lado, que o score (perspectiva das brancas) passa de {@code resignScore}
+ * para o mesmo lado; empate quando o score fica dentro de ±{@code drawScore}
+ * por {@code drawMoves} lances de cada lado a partir do lance
+ * {@code drawMoveNumber} da partida, ou quando falta material para mate.
+ * Lances sem busca (livro, humano, motores que não informam profundidade)
+ * zeram as contagens.
+ *
+ * A configuração é compartilhada entre partidas simultâneas; cada partida
+ * usa seu próprio {@link Game}. O resumo compara as partidas adjudicadas com
+ * as que terminaram pelas regras para estimar os lances e o tempo poupados.
+ */
+final class Adjudicator {
+    private final int resignScore, resignMoves;
+    private final int drawScore, drawMoves, drawMoveNumber;
+
+    // estatísticas; as partidas terminam em threads diferentes
+    private int naturalGames, adjudicatedGames, materialGames;
+    private long naturalPlies, adjudicatedPlies, naturalNanos;
+
+    /**
+     * @param resignScore    score em centipeões que decide a partida
+     * @param resignMoves    lances de cada lado acima do limite
+     * @param drawScore      score máximo, em módulo, de uma posição empatada
+     * @param drawMoves      lances de cada lado dentro do limite
+     * @param drawMoveNumber primeiro lance em que o empate por score vale
+     */
+    Adjudicator(int resignScore, int resignMoves, int drawScore, int drawMoves, int drawMoveNumber) {
+        this.resignScore = resignScore;
+        this.resignMoves = resignMoves;
+        this.drawScore = drawScore;
+        this.drawMoves = drawMoves;
+        this.drawMoveNumber = drawMoveNumber;
+    }
+
+    /** Desiste com 10 peões por 4 lances; empata com até 0.10 por 8 lances depois do lance 40. */
+    static Adjudicator defaults() {
+        return new Adjudicator(1000, 4, 10, 8, 40);
+    }
+
+    Game newGame() {
+        return new Game();
+    }
+
+    /** Acompanha uma partida; chame {@link #update} depois de cada lance. */
+    final class Game {
+        private final long start = System.nanoTime();
+        private int winPlies, lossPlies, drawPlies;   // lances seguidos com o score além de cada limite
+        private int plies;
+        private String reason;
+
+        /**
+         * @param board  posição depois do lance
+         * @param search busca que escolheu o lance, ou null
+         * @return o resultado adjudicado, ou ONGOING (também quando a partida já acabou pelas regras)
+         */
+        GameResult update(Board board, EngineResult search) {
+            plies++;
+            if (board.isGameOver()) return GameResult.ONGOING;   // as regras decidem: fim natural
+            if (board.isInsufficientMaterial()) {
+                reason = "material insuficiente";
+                return GameResult.DRAW;
+            }
+            if (search == null || search.getDepth() == 0) {
+                winPlies = lossPlies = drawPlies = 0;
+                return GameResult.ONGOING;
+            }
+            int score = search.getScore();
+            winPlies  = score >= resignScore  ? winPlies + 1  : 0;
+            lossPlies = score <= -resignScore ? lossPlies + 1 : 0;
+            drawPlies = Math.abs(score) <= drawScore ? drawPlies + 1 : 0;
+
+            if (winPlies >= 2 * resignMoves) {
+                reason = "brancas vencendo";
+                return GameResult.WHITE_WINS;
+            }
+            if (lossPlies >= 2 * resignMoves) {
+                reason = "pretas vencendo";
+                return GameResult.BLACK_WINS;
+            }
+            if (drawPlies >= 2 * drawMoves && board.getFullmoveNumber() >= drawMoveNumber) {
+                reason = "empate pelo score";
+                return GameResult.DRAW;
+            }
+            return GameResult.ONGOING;
+        }
+
+        /** Motivo da adjudicação, ou null se a partida acabou pelas regras. */
+        String reason() {
+            return reason;
+        }
+
+        /** Soma a partida terminada às estatísticas do resumo. */
+        void finish() {
+            long nanos = System.nanoTime() - start;
+            synchronized (Adjudicator.this) {
+                if (reason == null) {
+                    naturalGames++;
+                    naturalPlies += plies;
+                    naturalNanos += nanos;
+                } else {
+                    adjudicatedGames++;
+                    adjudicatedPlies += plies;
+                    if (reason.equals("material insuficiente")) materialGames++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Partidas adjudicadas e a economia estimada: cada uma teria durado, em
+     * média, o mesmo que as partidas que terminaram pelas regras, ao custo
+     * médio por lance medido nelas.
+     */
+    synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Adjudicadas: %d de %d partidas (%d por material)",
+                adjudicatedGames, adjudicatedGames + naturalGames, materialGames));
+        if (adjudicatedGames > 0 && naturalGames > 0 && naturalPlies > 0) {
+            double avgNatural = (double) naturalPlies / naturalGames;
+            double avgAdjudicated = (double) adjudicatedPlies / adjudicatedGames;
+            double savedPlies = Math.max(0, avgNatural - avgAdjudicated) * adjudicatedGames;
+            double msPerPly = naturalNanos / 1e6 / naturalPlies;
+            sb.append(String.format(", ~%.0f lances e ~%.0f s poupados (%.1f lances por partida contra %.1f)",
+                    savedPlies, savedPlies * msPerPly / 1000, avgAdjudicated, avgNatural));
+        }
+        return sb.toString();
+    }
+}
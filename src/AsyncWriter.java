@@ -0,0 +1,75 @@
+package app;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Saída de texto escrita por uma thread própria: quem joga só põe a linha
+ * numa fila e volta à busca. A thread grava num buffer grande e só descarrega
+ * quando a fila esvazia, então rajadas de linhas viram poucas escritas.
+ */
+final class AsyncWriter implements AutoCloseable {
+    private static final String END = new String("fim");   // sentinela, comparada por referência
+
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Writer out;
+    private final boolean closeStream;
+    private final Thread thread;
+    private volatile IOException error;
+
+    /** @param closeStream fecha o stream no {@link #close()} (falso para System.out) */
+    AsyncWriter(OutputStream stream, boolean closeStream) {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream), 1 << 16);
+        this.closeStream = closeStream;
+        this.thread = new Thread(this::drain, "async-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static AsyncWriter stdout() {
+        return new AsyncWriter(System.out, false);
+    }
+
+    void println(String line) {
+        queue.add(line + System.lineSeparator());
+    }
+
+    void printf(String format, Object... args) {
+        queue.add(String.format(format, args));
+    }
+
+    private void drain() {
+        try {
+            for (String s; (s = queue.take()) != END; ) {
+                out.write(s);
+                if (queue.isEmpty()) out.flush();
+            }
+            out.flush();
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Espera a fila esvaziar e descarrega tudo. */
+    @Override
+    public void close() {
+        queue.add(END);
+        try {
+            thread.join();
+            if (closeStream) out.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+        if (error != null) throw new UncheckedIOException("Falha ao gravar saída", error);
+    }
+}
@@ -0,0 +1,56 @@
+package app;
+
+import Jogo.Board;
+import ai.Engine;
+import ai.EngineResult;
+import ai.Engines;
+import ai.SearchLimits;
+import ai.SearchRequest;
+
+import java.util.Arrays;
+
+/**
+ * Benchmark determinístico: busca cada posição de {@link Main#OPENINGS} com
+ * limite de nós ou de profundidade e imprime a assinatura (total de nós).
+ * A mesma versão sempre dá a mesma assinatura, em qualquer máquina.
+ *
+ * Uso: java app.Bench [motor de ai.Engines] [nodes|depth] [valor] [--mobility]
+ * (a assinatura de nós só existe nos motores que contam nós)
+ */
+public class Bench {
+    public static void main(String[] args) {
+        boolean mobility = Arrays.asList(args).contains("--mobility");
+        args = Arrays.stream(args).filter(a -> !a.startsWith("--")).toArray(String[]::new);
+        String engine = args.length > 0 ? args[0] : "BetterSquares";
+        String mode   = args.length > 1 ? args[1] : "nodes";
+        long value    = args.length > 2 ? Long.parseLong(args[2]) : 20_000;
+        SearchLimits limits = switch (mode) {
+            case "nodes" -> SearchLimits.nodes(value);
+            case "depth" -> SearchLimits.depth((int) value);
+            default -> throw new IllegalArgumentException("Modo desconhecido: " + mode);
+        };
+
+        long totalNodes = 0;
+        long start = System.nanoTime();
+        StringBuilder moves = new StringBuilder();
+        for (Main.Opening op : Main.OPENINGS) {
+            Board board = new Board();
+            board.loadFromFEN(op.fen);
+
+            // motor novo por posição: tabela vazia, resultado independe da ordem
+            Engine ai = Engines.create(engine);
+            ai.setMobility(mobility);
+            EngineResult result = ai.search(board, SearchRequest.of(limits));
+            totalNodes += result.getNodes();
+            moves.append(String.format("%-18s %-6s %,d nodes%n", op.name, result.getMove(), result.getNodes()));
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.println();
+        System.out.println("=== Bench " + engine + " (" + limits + ") ===");
+        System.out.print(moves);
+        System.out.println("Total time (ms) : " + elapsedMs);
+        System.out.println("Nodes searched  : " + totalNodes);
+        System.out.println("Nodes/second    : " + totalNodes * 1000 / elapsedMs);
+    }
+}
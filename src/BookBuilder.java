@@ -0,0 +1,418 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Move;
+import ai.MoveGenerator;
+import ai.PolyglotBook;
+import ai.PolyglotKeys;
+import ai.San;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Monta um livro Polyglot a partir de arquivos PGN (ou .pgn.gz). A leitura
+ * é em fluxo: as partidas são agrupadas em lotes e analisadas em paralelo,
+ * cada thread somando (posição, lance) → partidas e pontos num mapa de
+ * tipos primitivos. Quando um mapa enche, ele é ordenado e despejado num
+ * arquivo temporário; no fim os arquivos são intercalados e gravados como
+ * livro ordenado por chave. Um só pool atende todos os arquivos, então há
+ * exatamente um mapa por thread, e o orçamento de memória é dividido entre
+ * eles.
+ *
+ * Peso de cada lance: 2 por vitória e 1 por empate de quem jogou,
+ * normalizado para 16 bits dentro de cada posição.
+ *
+ * Uso: java app.BookBuilder saida.bin polyglot-random64.txt partidas.pgn... [opções]
+ *   --max-ply N       só as N primeiras meias-jogadas de cada partida (padrão 40)
+ *   --min-games N     descarta lances vistos em menos de N partidas (padrão 3)
+ *   --threads N       threads de análise (padrão: núcleos)
+ *   --memory MB       memória total dos mapas (padrão 512)
+ */
+public class BookBuilder {
+    private static final int BATCH_GAMES = 512;
+    private static final int ENTRY_BYTES = 20;   // chave, lance, partidas e pontos por posição do mapa
+
+    private final PolyglotKeys keys;
+    private final int maxPly;
+    private final int maxEntries;                // por mapa; metade da capacidade
+    private final Path spillDir;
+    private final ExecutorService pool;
+    private final Semaphore pending;             // lotes na fila: a leitura não passa muito à frente
+    private final List<Path> runs = new ArrayList<>();
+    private final List<MoveStats> maps = new ArrayList<>();
+    private final ThreadLocal<MoveStats> local;
+    private final ThreadLocal<MoveGenerator> gen = ThreadLocal.withInitial(MoveGenerator::new);
+    private final AtomicLong games = new AtomicLong();
+    private final AtomicLong badMoves = new AtomicLong();
+    private final AtomicInteger runCounter = new AtomicInteger();
+
+    /** @param memoryBytes memória total dos mapas, dividida entre as {@code threads} */
+    BookBuilder(PolyglotKeys keys, int maxPly, long memoryBytes, int threads, Path spillDir) {
+        this.keys = keys;
+        this.maxPly = maxPly;
+        this.spillDir = spillDir;
+        long perMap = memoryBytes / threads / ENTRY_BYTES;
+        int capacity = (int) Long.highestOneBit(Math.max(32, Math.min(perMap, 1 << 30)));
+        this.maxEntries = capacity / 2;   // carga <= 50%
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.pending = new Semaphore(threads * 2);
+        this.local = ThreadLocal.withInitial(() -> {
+            MoveStats m = new MoveStats(capacity);
+            synchronized (maps) { maps.add(m); }
+            return m;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> files = new ArrayList<>();
+        int maxPly = 40, minGames = 3, memoryMb = 512;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max-ply"     -> maxPly = Integer.parseInt(args[++i]);
+                case "--min-games"   -> minGames = Integer.parseInt(args[++i]);
+                case "--threads"     -> threads = Integer.parseInt(args[++i]);
+                case "--memory"      -> memoryMb = Integer.parseInt(args[++i]);
+                default -> files.add(args[i]);
+            }
+        }
+        if (files.size() < 3) {
+            System.out.println("Uso: java app.BookBuilder saida.bin polyglot-random64.txt partidas.pgn... [opções]");
+            return;
+        }
+
+        long start = System.nanoTime();
+        Path spillDir = Files.createTempDirectory("book");
+        BookBuilder builder = new BookBuilder(PolyglotKeys.load(Path.of(files.get(1))), maxPly,
+                (long) memoryMb << 20, threads, spillDir);
+        for (String pgn : files.subList(2, files.size())) {
+            builder.read(Path.of(pgn));
+        }
+        long written = builder.write(Path.of(files.get(0)), minGames);
+        System.out.printf("%d partidas, %d lances ilegais/ambíguos, %d entradas em %s (%d ms)%n",
+                builder.games.get(), builder.badMoves.get(), written, files.get(0),
+                (System.nanoTime() - start) / 1_000_000);
+        Files.deleteIfExists(spillDir);
+    }
+
+    /** Lê um arquivo PGN em lotes de partidas entregues ao pool; não espera a análise terminar. */
+    void read(Path pgn) throws IOException, InterruptedException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(pgn), 1 << 16);
+        if (pgn.toString().endsWith(".gz")) in = new GZIPInputStream(in, 1 << 16);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1))) {
+            List<String[]> batch = new ArrayList<>(BATCH_GAMES);
+            String result = "*";
+            boolean custom = false;   // partida com [FEN]: não sai da posição inicial
+            StringBuilder moves = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[")) {
+                    if (moves.length() > 0) {
+                        if (!custom) batch.add(new String[]{result, moves.toString()});
+                        moves.setLength(0);
+                        result = "*";
+                        custom = false;
+                        if (batch.size() == BATCH_GAMES) {
+                            submit(batch);
+                            batch = new ArrayList<>(BATCH_GAMES);
+                        }
+                    }
+                    if (line.startsWith("[FEN ")) custom = true;
+                    if (line.startsWith("[Result ")) {
+                        int q = line.indexOf('"');
+                        result = line.substring(q + 1, line.indexOf('"', q + 1));
+                    }
+                } else {
+                    int semi = line.indexOf(';');   // comentário até o fim da linha
+                    moves.append(semi >= 0 ? line.substring(0, semi) : line).append(' ');
+                }
+            }
+            if (moves.length() > 0 && !custom) batch.add(new String[]{result, moves.toString()});
+            if (!batch.isEmpty()) submit(batch);
+        }
+    }
+
+    /** Espera uma vaga na fila; só as threads do pool analisam, cada uma com seu mapa. */
+    private void submit(List<String[]> batch) throws InterruptedException {
+        pending.acquire();
+        pool.execute(() -> {
+            try {
+                for (String[] game : batch) addGame(game[0], game[1]);
+            } finally {
+                pending.release();
+            }
+        });
+    }
+
+    /** Reproduz a partida a partir da posição inicial, somando cada lance até maxPly. */
+    private void addGame(String result, String movetext) {
+        int whitePoints = switch (result) {
+            case "1-0" -> 2;
+            case "0-1" -> 0;
+            default -> 1;    // empate ou resultado desconhecido
+        };
+        MoveStats stats = local.get();
+        MoveGenerator moveGen = gen.get();
+        Board board = new Board();
+        int ply = 0;
+        for (String token : tokens(movetext)) {
+            if (ply >= maxPly) break;
+            List<Move> legal = moveGen.generateLegalMoves(board, board.isWhiteToMove());
+            Move m = San.parse(board, token, legal);
+            if (m == null) {
+                badMoves.incrementAndGet();
+                break;
+            }
+            int points = board.isWhiteToMove() ? whitePoints : 2 - whitePoints;
+            stats.add(keys.hash(board), PolyglotBook.encodeMove(board, m), points);
+            if (stats.size() >= maxEntries) spill(stats);
+            board.makeMove(m);
+            ply++;
+        }
+        games.incrementAndGet();
+    }
+
+    /** Lances SAN do texto, sem comentários, variantes, NAGs, números e resultado. */
+    static List<String> tokens(String movetext) {
+        List<String> out = new ArrayList<>();
+        int depth = 0;           // nível de variantes (...)
+        boolean comment = false; // dentro de {...}
+        for (String raw : movetext.replace("{", " { ").replace("}", " } ")
+                .replace("(", " ( ").replace(")", " ) ").split("\\s+")) {
+            if (raw.isEmpty()) continue;
+            if (comment) { if (raw.equals("}")) comment = false; continue; }
+            switch (raw) {
+                case "{" -> comment = true;
+                case "(" -> depth++;
+                case ")" -> depth--;
+                default -> {
+                    if (depth > 0 || raw.startsWith("$")) continue;
+                    String t = raw.replaceFirst("^\\d+\\.+", "");
+                    if (t.isEmpty() || t.equals("1-0") || t.equals("0-1") || t.equals("1/2-1/2") || t.equals("*")) continue;
+                    out.add(t);
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Ordena o mapa e grava como um arquivo temporário; o mapa é esvaziado. */
+    private void spill(MoveStats stats) {
+        Path run = spillDir.resolve("run" + runCounter.incrementAndGet() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            stats.writeSorted(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao despejar " + run, e);
+        }
+        stats.clear();
+        synchronized (runs) { runs.add(run); }
+    }
+
+    /**
+     * Despeja o que sobrou nos mapas, intercala os arquivos temporários
+     * somando entradas iguais e grava o livro.
+     *
+     * @return entradas gravadas
+     */
+    long write(Path book, int minGames) throws IOException, InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        for (MoveStats m : maps) if (m.size() > 0) spill(m);
+        maps.clear();
+
+        PriorityQueue<Run> queue = new PriorityQueue<>();
+        for (Path p : runs) {
+            Run r = new Run(p);
+            if (r.next()) queue.add(r);
+        }
+        long written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(book), 1 << 16))) {
+            List<long[]> position = new ArrayList<>();   // {move, games, points} da chave atual
+            long currentKey = 0;
+            while (!queue.isEmpty()) {
+                Run r = queue.poll();
+                long key = r.key;
+                int move = r.move;
+                long gamesSeen = r.games, points = r.points;
+                if (r.next()) queue.add(r); else r.close();
+                // soma as mesmas (chave, lance) vindas de outros arquivos
+                while (!queue.isEmpty() && queue.peek().key == key && queue.peek().move == move) {
+                    Run same = queue.poll();
+                    gamesSeen += same.games;
+                    points += same.points;
+                    if (same.next()) queue.add(same); else same.close();
+                }
+                if (!position.isEmpty() && key != currentKey) {
+                    written += writePosition(out, currentKey, position);
+                    position.clear();
+                }
+                currentKey = key;
+                if (gamesSeen >= minGames && points > 0) position.add(new long[]{move, gamesSeen, points});
+            }
+            if (!position.isEmpty()) written += writePosition(out, currentKey, position);
+        }
+        for (Path p : runs) Files.deleteIfExists(p);
+        return written;
+    }
+
+    /** Lances de uma posição, do maior para o menor peso, com pesos em 16 bits. */
+    private static int writePosition(DataOutputStream out, long key, List<long[]> moves) throws IOException {
+        moves.sort((a, b) -> Long.compare(b[2], a[2]));
+        long max = moves.get(0)[2];
+        for (long[] m : moves) {
+            long weight = max > 0xFFFF ? Math.max(1, m[2] * 0xFFFF / max) : m[2];
+            out.writeLong(key);
+            out.writeShort((int) m[0]);
+            out.writeShort((int) weight);
+            out.writeInt(0);
+        }
+        return moves.size();
+    }
+
+    /** Cursor sobre um arquivo temporário, ordenado por (chave sem sinal, lance). */
+    private static final class Run implements Comparable<Run> {
+        private final DataInputStream in;
+        long key;
+        int move, games, points;
+
+        Run(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        boolean next() throws IOException {
+            try {
+                key = in.readLong();
+                move = in.readUnsignedShort();
+                games = in.readInt();
+                points = in.readInt();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+
+        @Override
+        public int compareTo(Run o) {
+            int c = Long.compareUnsigned(key, o.key);
+            return c != 0 ? c : Integer.compare(move, o.move);
+        }
+    }
+
+    /**
+     * Mapa aberto (sondagem linear) de (chave Polyglot, lance) para partidas
+     * e pontos, em arrays de primitivos: sem objetos por entrada.
+     */
+    static final class MoveStats {
+        private final long[] keys;
+        private final int[] moves;     // lance + 1; 0 = vazio
+        private final int[] games;
+        private final int[] points;
+        private final int mask;
+        private int size;
+
+        /** @param capacity potência de 2 */
+        MoveStats(int capacity) {
+            keys = new long[capacity];
+            moves = new int[capacity];
+            games = new int[capacity];
+            points = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long key, int move, int pts) {
+            int i = (int) ((key ^ (key >>> 32) ^ move * 0x9E3779B9L) & mask);
+            while (moves[i] != 0 && (keys[i] != key || moves[i] != move + 1)) i = (i + 1) & mask;
+            if (moves[i] == 0) {
+                keys[i] = key;
+                moves[i] = move + 1;
+                size++;
+            }
+            games[i]++;
+            points[i] += pts;
+        }
+
+        void clear() {
+            Arrays.fill(moves, 0);
+            Arrays.fill(games, 0);
+            Arrays.fill(points, 0);
+            size = 0;
+        }
+
+        /** Compacta as entradas no início dos arrays, ordena e grava; depois disso só vale clear(). */
+        void writeSorted(DataOutputStream out) throws IOException {
+            int n = 0;
+            for (int i = 0; i < moves.length; i++) {
+                if (moves[i] != 0) swap(n++, i);
+            }
+            sort(0, n - 1);
+            for (int i = 0; i < n; i++) {
+                out.writeLong(keys[i]);
+                out.writeShort(moves[i] - 1);
+                out.writeInt(games[i]);
+                out.writeInt(points[i]);
+            }
+        }
+
+        private int compare(int a, int b) {
+            int c = Long.compareUnsigned(keys[a], keys[b]);
+            return c != 0 ? c : Integer.compare(moves[a], moves[b]);
+        }
+
+        // quicksort sobre os quatro arrays em paralelo
+        private void sort(int lo, int hi) {
+            while (lo < hi) {
+                swap((lo + hi) >>> 1, hi);
+                int store = lo;
+                for (int i = lo; i < hi; i++) {
+                    if (compare(i, hi) < 0) swap(i, store++);
+                }
+                swap(store, hi);
+                if (store - lo < hi - store) {
+                    sort(lo, store - 1);
+                    lo = store + 1;
+                } else {
+                    sort(store + 1, hi);
+                    hi = store - 1;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            long k = keys[a]; keys[a] = keys[b]; keys[b] = k;
+            int t = moves[a]; moves[a] = moves[b]; moves[b] = t;
+            t = games[a]; games[a] = games[b]; games[b] = t;
+            t = points[a]; points[a] = points[b]; points[b] = t;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Board.GameResult;
+import Jogo.Move;
+import Jogo.Piece;
+import ai.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gera posições de treino (Texel e NNUE) por autojogo. Cada partida parte
+ * de uma abertura sorteada, faz alguns lances aleatórios para variar e
+ * segue com o motor jogando dos dois lados com limite de nós. Ficam as
+ * posições quietas: sem xeque, com lance escolhido que não é captura nem
+ * promoção e score longe de mate. Ao fim da partida (pelas regras ou pelo
+ * {@link Adjudicator}), o resultado é gravado em todos os registros dela
+ * e o bloco vai de uma vez para o {@link TrainingData.Writer}.
+ *
+ * As partidas rodam num pool de tamanho fixo, cada uma com seu motor; o
+ * sorteio de cada partida usa a semente mais o número da partida, e os
+ * blocos são gravados na ordem dos números das partidas (os que terminam
+ * antes da vez esperam na memória). Assim, com limite de nós, a mesma
+ * semente gera o mesmo arquivo com qualquer --concurrency.
+ *
+ * Uso: java app.DataGen [opções]
+ *   --engine NOME     motor de ai.Engines (padrão BetterSquares)
+ *   --games N         partidas (padrão 1000)
+ *   --nodes N         nós por lance (padrão 5000)
+ *   --random-plies N  lances aleatórios depois da abertura (padrão 8)
+ *   --concurrency N   partidas simultâneas (padrão núcleos)
+ *   --openings ARQ    suíte EPD/FEN (padrão Main.OPENINGS)
+ *   --seed N          semente (padrão 1)
+ *   --hash MB         tabela de transposição de cada motor (padrão 16)
+ *   --out ARQ         arquivo de saída (padrão selfplay.bin.gz)
+ */
+public class DataGen {
+    private static final int REPORT_EVERY = 100;
+
+    private final String engineName;
+    private final SearchRequest request;
+    private final List<Main.Opening> openings;
+    private final int randomPlies;
+    private final long seed;
+    private final TrainingData.Writer out;
+
+    private final EndgameBitbases bitbases;
+    private final EvalParams params;
+    private final Nnue network;
+    private final Adjudicator adjudicator = Adjudicator.defaults();
+
+    private int gamesDone;
+    // blocos que terminaram antes da vez, por número da partida
+    private final Map<Integer, byte[]> pending = new HashMap<>();
+    private int nextToWrite;
+    private final long start = System.nanoTime();
+
+    DataGen(String engineName, SearchRequest request, List<Main.Opening> openings,
+            int randomPlies, long seed, TrainingData.Writer out) {
+        this.engineName = engineName;
+        this.request = request;
+        this.openings = openings;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+        this.out = out;
+        this.bitbases = EndgameBitbases.loadOrGenerate(Path.of(Main.BITBASE_FILE), EndgameBitbases.ALL);
+        this.params = Files.exists(Path.of(Main.EVAL_PARAMS_FILE)) ? EvalParams.load(Path.of(Main.EVAL_PARAMS_FILE)) : null;
+        this.network = Files.exists(Path.of(Main.NNUE_FILE)) ? Nnue.load(Path.of(Main.NNUE_FILE)) : null;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String engine = "BetterSquares", outFile = "selfplay.bin.gz", openingsFile = null;
+        int games = 1000, randomPlies = 8, hash = SearchRequest.DEFAULT_HASH_MB;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        long nodes = 5000, seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--engine"       -> engine = args[++i];
+                case "--games"        -> games = Integer.parseInt(args[++i]);
+                case "--nodes"        -> nodes = Long.parseLong(args[++i]);
+                case "--random-plies" -> randomPlies = Integer.parseInt(args[++i]);
+                case "--concurrency"  -> concurrency = Integer.parseInt(args[++i]);
+                case "--openings"     -> openingsFile = args[++i];
+                case "--seed"         -> seed = Long.parseLong(args[++i]);
+                case "--hash"         -> hash = Integer.parseInt(args[++i]);
+                case "--out"          -> outFile = args[++i];
+                default -> {
+                    System.out.println("Opção desconhecida: " + args[i]);
+                    return;
+                }
+            }
+        }
+        List<Main.Opening> openings = openingsFile != null
+                ? OpeningSuite.load(Path.of(openingsFile)) : Arrays.asList(Main.OPENINGS);
+
+        try (TrainingData.Writer out = new TrainingData.Writer(Path.of(outFile))) {
+            DataGen gen = new DataGen(engine, new SearchRequest(SearchLimits.nodes(nodes), 1, hash),
+                    openings, randomPlies, seed, out);
+            System.out.printf("%s, %d partidas, %d nós por lance, %d simultâneas → %s%n",
+                    engine, games, nodes, concurrency, outFile);
+            gen.run(games, concurrency);
+            if (gen.gamesDone % REPORT_EVERY != 0) gen.report();
+            System.out.println(gen.adjudicator.summary());
+        }
+    }
+
+    void run(int games, int concurrency) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int g = 0; g < games; g++) {
+            int number = g;
+            futures.add(pool.submit(() -> play(number)));
+        }
+        pool.shutdown();
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Partida falhou", e.getCause());
+        }
+    }
+
+    /** Uma partida de autojogo; grava as posições quietas dela. */
+    private void play(int number) {
+        Random random = new Random(seed * 1_000_003 + number);
+        Engine engine = Engines.create(engineName);
+        engine.setBitbases(bitbases);
+        if (params != null) engine.setEvalParams(params);
+        if (network != null) engine.setNetwork(network);
+        engine.setQuiet(true);
+        engine.newGame();
+
+        Board board = new Board();
+        String fen = openings.get(random.nextInt(openings.size())).fen;
+        board.loadFromFEN(fen);
+
+        MoveGenerator moveGen = new MoveGenerator();
+        for (int i = 0; i < randomPlies && !board.isGameOver(); i++) {
+            List<Move> legal = moveGen.generateLegalMoves(board, board.isWhiteToMove());
+            board.makeMove(legal.get(random.nextInt(legal.size())));
+        }
+
+        byte[] block = new byte[256 * TrainingData.RECORD_BYTES];
+        int count = 0;
+        Adjudicator.Game adjudication = adjudicator.newGame();
+        GameResult result = GameResult.ONGOING;
+        while (result == GameResult.ONGOING && !board.isGameOver()) {
+            EngineResult search = engine.search(board, request);
+            Move move = search.getMove();
+            if (move == null) break;
+            if (quiet(board, move, search)) {
+                if ((count + 1) * TrainingData.RECORD_BYTES > block.length) block = Arrays.copyOf(block, block.length * 2);
+                TrainingData.pack(board, search.getScore(), 0, board.getFullmoveNumber(), block, count * TrainingData.RECORD_BYTES);
+                count++;
+            }
+            board.makeMove(move);
+            result = adjudication.update(board, search);
+        }
+        adjudication.finish();
+        if (result == GameResult.ONGOING) result = board.getGameResult();
+        if (result == GameResult.ONGOING) {
+            write(number, block, 0);   // motor sem lance: partida descartada, mas a vez passa
+            return;
+        }
+
+        byte label = (byte) (result == GameResult.WHITE_WINS ? 2 : result == GameResult.DRAW ? 1 : 0);
+        for (int i = 0; i < count; i++) block[i * TrainingData.RECORD_BYTES + TrainingData.RESULT_OFFSET] = label;
+        write(number, block, count);
+        gameFinished();
+    }
+
+    /** Grava o bloco da partida e os seguintes que já esperavam, na ordem dos números. */
+    private synchronized void write(int number, byte[] block, int count) {
+        pending.put(number, Arrays.copyOf(block, count * TrainingData.RECORD_BYTES));
+        for (byte[] next; (next = pending.remove(nextToWrite)) != null; nextToWrite++) {
+            out.write(next, next.length / TrainingData.RECORD_BYTES);
+        }
+    }
+
+    /** Sem xeque, lance sem captura nem promoção e score que não é de partida decidida. */
+    private static boolean quiet(Board board, Move move, EngineResult search) {
+        if (search.getDepth() == 0 || EngineResult.isDecided(search.getScore())) return false;
+        if (board.isInCheck(board.isWhiteToMove()) || move.getPromotion() != null) return false;
+        if (board.getPiece(move.getToRow(), move.getToCol()) != null) return false;
+        Piece moved = board.getPiece(move.getFromRow(), move.getFromCol());
+        boolean pawn = moved == Piece.WHITE_PAWN || moved == Piece.BLACK_PAWN;
+        return !(pawn && move.getFromCol() != move.getToCol());   // en passant
+    }
+
+    private synchronized void gameFinished() {
+        if (++gamesDone % REPORT_EVERY == 0) report();
+    }
+
+    private synchronized void report() {
+        double hours = (System.nanoTime() - start) / 3.6e12;
+        long positions = out.records();
+        System.out.printf("%d partidas, %d posições (%.0f posições/hora)%n",
+                gamesDone, positions, hours > 0 ? positions / hours : 0);
+    }
+}
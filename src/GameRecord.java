@@ -0,0 +1,56 @@
+package app;
+
+import Jogo.Board.GameResult;
+import Jogo.Move;
+import ai.EngineResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Partida terminada de um {@link Tournament}: quem jogou, de onde partiu e como acabou. */
+final class GameRecord {
+    final int number;            // ordem da partida no torneio, a partir de 1
+    final int pair;              // as duas partidas da mesma abertura e rodada (cores trocadas)
+    final Main.Opening opening;
+    final String white, black;
+    final boolean aWhite;        // o primeiro motor do torneio jogou de brancas
+    final List<Move> moves;
+    final List<EngineResult> searches;   // busca de cada lance; null nos lances de livro ou humanos
+    final GameResult result;
+    final String termination;    // motivo do fim, para relatórios e PGN
+
+    GameRecord(int number, int pair, Main.Opening opening, String white, String black,
+               boolean aWhite, List<Move> moves, List<EngineResult> searches,
+               GameResult result, String termination) {
+        this.number = number;
+        this.pair = pair;
+        this.opening = opening;
+        this.white = white;
+        this.black = black;
+        this.aWhite = aWhite;
+        this.moves = List.copyOf(moves);
+        this.searches = Collections.unmodifiableList(new ArrayList<>(searches));
+        this.result = result;
+        this.termination = termination;
+    }
+
+    /** Pontos do primeiro motor nesta partida: 1, 0.5 ou 0. */
+    double scoreA() {
+        switch (result) {
+            case WHITE_WINS: return aWhite ? 1 : 0;
+            case BLACK_WINS: return aWhite ? 0 : 1;
+            default:         return 0.5;
+        }
+    }
+
+    /** Resultado no formato PGN. */
+    String resultTag() {
+        switch (result) {
+            case WHITE_WINS: return "1-0";
+            case BLACK_WINS: return "0-1";
+            case DRAW:       return "1/2-1/2";
+            default:         return "*";
+        }
+    }
+}
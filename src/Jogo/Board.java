@@ -2,8 +2,7 @@
 package Jogo;
 
 import ai.MoveGenerator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 public class Board {
     public enum GameResult { ONGOING, DRAW, WHITE_WINS, BLACK_WINS }
@@ -16,7 +15,28 @@ public class Board {
     // —— new fields for draw/mate detection ——
     private boolean whiteToMove;
     private int halfmoveClock;            // half-moves since last pawn move or capture
-    private Map<String,Integer> repetitionCounts;
+    private int fullmoveNumber;           // começa em 1, avança depois do lance das pretas
+    private long[] history;               // hashes desde o último lance irreversível, índice = halfmoveClock
+    private int historyStart;             // primeiro índice conhecido (> 0 quando a FEN traz o clock)
+    private long hash;                    // Zobrist, mantido incrementalmente em makeMove
+    private long pawnHash;                // Zobrist só dos peões (tabela de estrutura de peões)
+    private int pieceCount;               // peças no tabuleiro, incluindo reis
+    private long[] bitboards = new long[12];  // casas de cada peça (bit linha * 8 + coluna), por ordinal
+    private int phase;                    // soma dos pesos de fase das peças
+    // somas do PstSet por lado (material; material + PST de meio-jogo e final)
+    private PstSet pst;
+    private int materialWhite, materialBlack;
+    private int mgWhite, mgBlack, egWhite, egBlack;
+    // acumuladores da camada de entrada NNUE, um por perspectiva (null sem rede)
+    private NnueFeatures nnue;
+    private short[] accWhite, accBlack;
+    private boolean accWhiteStale, accBlackStale;   // o rei andou: recalcular do zero
+    private int whiteKingSq, blackKingSq;           // linha * 8 + coluna
+
+    /** Fase com todas as peças: cavalo e bispo 1, torre 2, dama 4. */
+    public static final int MAX_PHASE = 24;
+
+    private static final int HISTORY_SIZE = 16;
 
     public Board() {
         grid = new Piece[8][8];
@@ -27,8 +47,14 @@ public class Board {
 
         whiteToMove = true;
         halfmoveClock = 0;
-        repetitionCounts = new HashMap<>();
-        repetitionCounts.put(generateFEN(), 1);
+        fullmoveNumber = 1;
+        history = new long[HISTORY_SIZE];
+        hash = computeHash();
+        pawnHash = computePawnHash();
+        history[0] = hash;
+        computeBitboards();
+        pieceCount = 32;
+        phase = MAX_PHASE;
     }
 
     /** Construtor de cópia */
@@ -46,7 +72,28 @@ public class Board {
 
         whiteToMove       = other.whiteToMove;
         halfmoveClock     = other.halfmoveClock;
-        repetitionCounts  = new HashMap<>(other.repetitionCounts);
+        fullmoveNumber    = other.fullmoveNumber;
+        history           = Arrays.copyOf(other.history, other.halfmoveClock + 2);   // só o trecho usado, mais um lance
+        historyStart      = other.historyStart;
+        hash              = other.hash;
+        pawnHash          = other.pawnHash;
+        pieceCount        = other.pieceCount;
+        bitboards         = other.bitboards.clone();
+        phase             = other.phase;
+        pst               = other.pst;
+        materialWhite     = other.materialWhite;
+        materialBlack     = other.materialBlack;
+        mgWhite           = other.mgWhite;
+        mgBlack           = other.mgBlack;
+        egWhite           = other.egWhite;
+        egBlack           = other.egBlack;
+        nnue              = other.nnue;
+        if (nnue != null) {
+            accWhite      = other.accWhite.clone();
+            accBlack      = other.accBlack.clone();
+            whiteKingSq   = other.whiteKingSq;
+            blackKingSq   = other.blackKingSq;
+        }
     }
 
     // ——— getters ———
@@ -57,6 +104,113 @@ public class Board {
     public boolean canBlackCastleKing()  { return blackCastleKing;  }
     public boolean canBlackCastleQueen() { return blackCastleQueen; }
     public boolean isWhiteToMove()       { return whiteToMove;     }
+    public int getHalfmoveClock()        { return halfmoveClock;   }
+    public int getFullmoveNumber()       { return fullmoveNumber;  }
+    public long getHash()                { return hash;            }
+    public long getPawnHash()            { return pawnHash;        }
+    public int getPieceCount()           { return pieceCount;      }
+
+    /** Casas ocupadas pela peça: bit linha * 8 + coluna (bit 0 = a1). */
+    public long getBitboard(Piece p)     { return bitboards[p.ordinal()]; }
+
+    /** Casas ocupadas pelas peças de um lado. */
+    public long getOccupied(boolean white) {
+        int from = white ? 0 : 6;
+        return bitboards[from] | bitboards[from + 1] | bitboards[from + 2]
+             | bitboards[from + 3] | bitboards[from + 4] | bitboards[from + 5];
+    }
+
+    /**
+     * Passa a somar material e PST deste conjunto a cada lance (as cópias
+     * herdam o conjunto). Recalcula as somas uma vez; null desliga.
+     */
+    public void setPst(PstSet pst) {
+        this.pst = pst;
+        materialWhite = materialBlack = mgWhite = mgBlack = egWhite = egBlack = 0;
+        if (pst == null) return;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (grid[r][c] != null) accumulate(grid[r][c], r, c, 1);
+            }
+        }
+    }
+
+    public PstSet getPst()                { return pst; }
+    public int getMaterial(boolean white) { return white ? materialWhite : materialBlack; }
+    public int getMgScore(boolean white)  { return white ? mgWhite : mgBlack; }
+    public int getEgScore(boolean white)  { return white ? egWhite : egBlack; }
+
+    private void accumulate(Piece p, int row, int col, int sign) {
+        if (p.isWhite()) {
+            materialWhite += sign * pst.material(p);
+            mgWhite += sign * pst.mg(p, row, col);
+            egWhite += sign * pst.eg(p, row, col);
+        } else {
+            materialBlack += sign * pst.material(p);
+            mgBlack += sign * pst.mg(p, row, col);
+            egBlack += sign * pst.eg(p, row, col);
+        }
+    }
+
+    /**
+     * Passa a manter os acumuladores desta rede a cada lance (as cópias
+     * herdam a rede). Calcula os dois do zero uma vez; null desliga.
+     */
+    public void setNnue(NnueFeatures nnue) {
+        this.nnue = nnue;
+        if (nnue == null) {
+            accWhite = accBlack = null;
+            return;
+        }
+        accWhite = new short[nnue.getHidden()];
+        accBlack = new short[nnue.getHidden()];
+        refreshAccumulator(true);
+        refreshAccumulator(false);
+    }
+
+    public NnueFeatures getNnue() { return nnue; }
+
+    /** Acumulador da perspectiva dada; não deve ser alterado. */
+    public short[] getAccumulator(boolean white) {
+        return white ? accWhite : accBlack;
+    }
+
+    private void refreshAccumulator(boolean white) {
+        short[] acc = white ? accWhite : accBlack;
+        Piece king = white ? Piece.WHITE_KING : Piece.BLACK_KING;
+        int kingSq = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if (grid[sq >> 3][sq & 7] == king) kingSq = sq;
+        }
+        if (white) whiteKingSq = kingSq; else blackKingSq = kingSq;
+        nnue.reset(acc);
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = grid[sq >> 3][sq & 7];
+            if (p != null && p != Piece.WHITE_KING && p != Piece.BLACK_KING) {
+                nnue.add(acc, NnueFeatures.index(white, kingSq, p, sq));
+            }
+        }
+        if (white) accWhiteStale = false; else accBlackStale = false;
+    }
+
+    private void updateAccumulators(Piece p, int row, int col, boolean add) {
+        if (p == Piece.WHITE_KING) { accWhiteStale = true; return; }
+        if (p == Piece.BLACK_KING) { accBlackStale = true; return; }
+        int sq = row * 8 + col;
+        if (!accWhiteStale) {
+            int f = NnueFeatures.index(true, whiteKingSq, p, sq);
+            if (add) nnue.add(accWhite, f); else nnue.sub(accWhite, f);
+        }
+        if (!accBlackStale) {
+            int f = NnueFeatures.index(false, blackKingSq, p, sq);
+            if (add) nnue.add(accBlack, f); else nnue.sub(accBlack, f);
+        }
+    }
+
+    /** Fase do jogo, de 0 (só reis e peões) a MAX_PHASE (abertura); promoções não passam do máximo. */
+    public int getPhase() {
+        return Math.min(phase, MAX_PHASE);
+    }
 
     /** Inicializa posição inicial de xadrez */
     private void setupStartPosition() {
@@ -81,12 +235,15 @@ public class Board {
 
     /**
      * Applies a move: updates board, castling rights, en passant,
-     * halfmove clock, repetition counts, flips side to move.
+     * halfmove clock, repetition history, flips side to move.
      */
     public void makeMove(Move m) {
         Piece p = grid[m.getFromRow()][m.getFromCol()];
         Piece captured = grid[m.getToRow()][m.getToCol()];
 
+        hash ^= Zobrist.castling(castlingRights());
+        if (enPassantRow >= 0) hash ^= Zobrist.enPassant(enPassantCol);
+
         // ——— update castling rights ———
         if (p == Piece.WHITE_KING) {
             whiteCastleKing = whiteCastleQueen = false;
@@ -123,30 +280,33 @@ public class Board {
             int capRow = m.getFromRow();
             int capCol = m.getToCol();
             captured = grid[capRow][capCol];
-            grid[capRow][capCol] = null;
+            clear(capRow, capCol);
         }
 
         // ——— castling move ———
         if (p == Piece.WHITE_KING || p == Piece.BLACK_KING) {
             if (Math.abs(m.getToCol() - m.getFromCol()) == 2) {
                 int home = m.getFromRow();
-                if (m.getToCol() == 6) {
-                    grid[home][5] = grid[home][7]; grid[home][7] = null;
-                } else {
-                    grid[home][3] = grid[home][0]; grid[home][0] = null;
-                }
+                int rookFrom = m.getToCol() == 6 ? 7 : 0;
+                int rookTo   = m.getToCol() == 6 ? 5 : 3;
+                Piece rook = grid[home][rookFrom];
+                clear(home, rookFrom);
+                if (rook != null) place(home, rookTo, rook);
             }
         }
 
         // ——— promotion ———
+        clear(m.getToRow(), m.getToCol());
+        clear(m.getFromRow(), m.getFromCol());
         if ((p == Piece.WHITE_PAWN || p == Piece.BLACK_PAWN) && m.getPromotion() != null) {
-            grid[m.getToRow()][m.getToCol()] = m.getPromotion();
-            grid[m.getFromRow()][m.getFromCol()] = null;
+            place(m.getToRow(), m.getToCol(), m.getPromotion());
         } else {
-            grid[m.getToRow()][m.getToCol()] = p;
-            grid[m.getFromRow()][m.getFromCol()] = null;
+            place(m.getToRow(), m.getToCol(), p);
         }
 
+        if (accWhiteStale) refreshAccumulator(true);
+        if (accBlackStale) refreshAccumulator(false);
+
         // ——— halfmove clock ———
         boolean pawnMove = (p == Piece.WHITE_PAWN || p == Piece.BLACK_PAWN)
                 && m.getFromRow() != m.getToRow();
@@ -154,11 +314,90 @@ public class Board {
         halfmoveClock = (pawnMove || didCap) ? 0 : halfmoveClock + 1;
 
         // ——— toggle side ———
+        if (!whiteToMove) fullmoveNumber++;
         whiteToMove = !whiteToMove;
 
+        hash ^= Zobrist.castling(castlingRights()) ^ Zobrist.whiteToMove();
+        if (enPassantRow >= 0) hash ^= Zobrist.enPassant(enPassantCol);
+
         // ——— repetition ———
-        String fen = generateFEN();
-        repetitionCounts.put(fen, repetitionCounts.getOrDefault(fen, 0) + 1);
+        if (halfmoveClock == 0) historyStart = 0;
+        if (halfmoveClock >= history.length) history = Arrays.copyOf(history, history.length * 2);
+        history[halfmoveClock] = hash;
+    }
+
+    /** Coloca uma peça numa casa vazia, atualizando o hash. */
+    private void place(int row, int col, Piece p) {
+        grid[row][col] = p;
+        hash ^= Zobrist.piece(p, row, col);
+        bitboards[p.ordinal()] ^= 1L << (row * 8 + col);
+        pieceCount++;
+        phase += phaseWeight(p);
+        if (p == Piece.WHITE_PAWN || p == Piece.BLACK_PAWN) pawnHash ^= Zobrist.piece(p, row, col);
+        if (pst != null) accumulate(p, row, col, 1);
+        if (nnue != null) updateAccumulators(p, row, col, true);
+    }
+
+    /** Esvazia uma casa, atualizando o hash. */
+    private void clear(int row, int col) {
+        Piece p = grid[row][col];
+        if (p == null) return;
+        grid[row][col] = null;
+        hash ^= Zobrist.piece(p, row, col);
+        bitboards[p.ordinal()] ^= 1L << (row * 8 + col);
+        pieceCount--;
+        phase -= phaseWeight(p);
+        if (p == Piece.WHITE_PAWN || p == Piece.BLACK_PAWN) pawnHash ^= Zobrist.piece(p, row, col);
+        if (pst != null) accumulate(p, row, col, -1);
+        if (nnue != null) updateAccumulators(p, row, col, false);
+    }
+
+    private static int phaseWeight(Piece p) {
+        switch (p) {
+            case WHITE_KNIGHT: case BLACK_KNIGHT:
+            case WHITE_BISHOP: case BLACK_BISHOP: return 1;
+            case WHITE_ROOK:   case BLACK_ROOK:   return 2;
+            case WHITE_QUEEN:  case BLACK_QUEEN:  return 4;
+            default:                              return 0;
+        }
+    }
+
+    private int castlingRights() {
+        return (whiteCastleKing  ? 1 : 0) | (whiteCastleQueen ? 2 : 0)
+             | (blackCastleKing  ? 4 : 0) | (blackCastleQueen ? 8 : 0);
+    }
+
+    /** Hash Zobrist calculado do zero (construtores e FEN). */
+    private long computeHash() {
+        long h = Zobrist.castling(castlingRights());
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (grid[r][c] != null) h ^= Zobrist.piece(grid[r][c], r, c);
+            }
+        }
+        if (enPassantRow >= 0) h ^= Zobrist.enPassant(enPassantCol);
+        if (whiteToMove) h ^= Zobrist.whiteToMove();
+        return h;
+    }
+
+    private void computeBitboards() {
+        bitboards = new long[12];
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (grid[r][c] != null) bitboards[grid[r][c].ordinal()] |= 1L << (r * 8 + c);
+            }
+        }
+    }
+
+    private long computePawnHash() {
+        long h = 0;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = grid[r][c];
+                if (p == Piece.WHITE_PAWN || p == Piece.BLACK_PAWN) h ^= Zobrist.piece(p, r, c);
+            }
+        }
+        return h;
     }
 
     /** Minimal FEN: placement, side, castling, en passant. */
@@ -198,8 +437,30 @@ public class Board {
         return halfmoveClock >= 100;
     }
 
+    /** Procura a posição atual para trás, só entre as do mesmo lado a mover desde o último lance irreversível. */
     public boolean isDrawByRepetition() {
-        return repetitionCounts.getOrDefault(generateFEN(), 0) >= 3;
+        int count = 1;
+        for (int i = halfmoveClock - 2; i >= historyStart; i -= 2) {
+            if (history[i] == hash && ++count >= 3) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Nenhum lado consegue dar mate: só reis, rei e uma peça menor contra
+     * rei, ou só bispos, todos em casas da mesma cor.
+     */
+    public boolean isInsufficientMaterial() {
+        long heavy = bitboards[Piece.WHITE_PAWN.ordinal()] | bitboards[Piece.BLACK_PAWN.ordinal()]
+                | bitboards[Piece.WHITE_ROOK.ordinal()] | bitboards[Piece.BLACK_ROOK.ordinal()]
+                | bitboards[Piece.WHITE_QUEEN.ordinal()] | bitboards[Piece.BLACK_QUEEN.ordinal()];
+        if (heavy != 0) return false;
+        long knights = bitboards[Piece.WHITE_KNIGHT.ordinal()] | bitboards[Piece.BLACK_KNIGHT.ordinal()];
+        long bishops = bitboards[Piece.WHITE_BISHOP.ordinal()] | bitboards[Piece.BLACK_BISHOP.ordinal()];
+        int minors = Long.bitCount(knights | bishops);
+        if (minors <= 1) return true;
+        long darkSquares = 0xAA55AA55AA55AA55L;
+        return knights == 0 && ((bishops & darkSquares) == 0 || (bishops & ~darkSquares) == 0);
     }
 
     /** True if side to move is in check and has no legal moves. */
@@ -313,8 +574,9 @@ public class Board {
     // em Jogo/Board.java, dentro da classe Board:
 
     /**
-     * Carrega uma posição arbitrária a partir de uma string FEN (ignora clocks de meio-movimento
-     * e contagem de repetições, reinicializa halfmoveClock e repetitionCounts).
+     * Carrega uma posição arbitrária a partir de uma string FEN. Os contadores (5º e 6º
+     * campos) só são lidos quando são números; linhas EPD com operações depois dos quatro
+     * campos ficam com 0 e 1. O histórico de repetições recomeça na posição carregada.
      *
      * @param fen string FEN no formato padrão:
      *            \"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -\"
@@ -331,6 +593,8 @@ public class Board {
             throw new IllegalArgumentException("FEN inválida: deve ter 8 filas");
         }
         grid = new Piece[8][8];
+        pieceCount = 0;
+        phase = 0;
         for (int r = 0; r < 8; r++) {
             String rank = ranks[7 - r];  // FEN vai de 8ª fila pra 1ª
             int c = 0;
@@ -338,7 +602,10 @@ public class Board {
                 if (Character.isDigit(ch)) {
                     c += ch - '0';
                 } else {
-                    grid[r][c++] = fenCharToPiece(ch);
+                    Piece p = fenCharToPiece(ch);
+                    grid[r][c++] = p;
+                    pieceCount++;
+                    phase += phaseWeight(p);
                 }
             }
         }
@@ -362,10 +629,26 @@ public class Board {
             enPassantRow = ep.charAt(1) - '1';
         }
 
-        // Reinicia halfmove clock e repetições
-        halfmoveClock = 0;
-        repetitionCounts.clear();
-        repetitionCounts.put(generateFEN(), 1);
+        // 5) e 6) Contadores; as repetições recomeçam daqui
+        halfmoveClock = counterField(parts, 4, 0);
+        fullmoveNumber = counterField(parts, 5, 1);
+        hash = computeHash();
+        pawnHash = computePawnHash();
+        if (halfmoveClock >= history.length) history = new long[halfmoveClock + HISTORY_SIZE];
+        historyStart = halfmoveClock;
+        history[halfmoveClock] = hash;
+        computeBitboards();
+        setPst(pst);
+        setNnue(nnue);
+    }
+
+    /** Campo {@code i} da FEN se for um número (até 4 dígitos); senão {@code fallback}. */
+    private static int counterField(String[] parts, int i, int fallback) {
+        if (parts.length <= i || parts[i].isEmpty() || parts[i].length() > 4) return fallback;
+        for (int k = 0; k < parts[i].length(); k++) {
+            if (!Character.isDigit(parts[i].charAt(k))) return fallback;
+        }
+        return Integer.parseInt(parts[i]);
     }
 
 
@@ -0,0 +1,61 @@
+package Jogo;
+
+/**
+ * Camada de entrada de uma rede NNUE no estilo HalfKP: cada peça (sem os
+ * reis) vira uma entrada indexada pela casa do próprio rei, tipo, cor e
+ * casa, e cada entrada soma uma coluna de pesos int16 no acumulador. O
+ * {@link Board} mantém um acumulador por perspectiva, somando e subtraindo
+ * colunas a cada lance; só um lance de rei obriga a recalcular do zero o
+ * acumulador daquele lado.
+ */
+public final class NnueFeatures {
+    /** Entradas por perspectiva: casa do rei × 10 peças × casa. */
+    public static final int FEATURES = 64 * 10 * 64;
+
+    private final int hidden;
+    private final short[] bias;
+    private final short[] weights;   // [entrada * hidden + neurônio]
+
+    public NnueFeatures(int hidden, short[] bias, short[] weights) {
+        if (bias.length != hidden || weights.length != FEATURES * hidden) {
+            throw new IllegalArgumentException("Pesos NNUE com tamanho incompatível com " + hidden + " neurônios");
+        }
+        this.hidden = hidden;
+        this.bias = bias;
+        this.weights = weights;
+    }
+
+    /** Neurônios do acumulador de cada perspectiva. */
+    public int getHidden() {
+        return hidden;
+    }
+
+    /**
+     * Índice da entrada de uma peça vista por um lado. As casas são
+     * linha * 8 + coluna; para as pretas o tabuleiro é espelhado, então a
+     * mesma rede serve às duas perspectivas.
+     */
+    public static int index(boolean white, int kingSq, Piece p, int sq) {
+        if (!white) {
+            kingSq ^= 56;
+            sq ^= 56;
+        }
+        int type = p.ordinal() % 6 - 1;           // Q, R, B, N, P → 0..4
+        int side = p.isWhite() == white ? 0 : 5;  // peças próprias antes das adversárias
+        return (kingSq * 10 + side + type) * 64 + sq;
+    }
+
+    void reset(short[] acc) {
+        System.arraycopy(bias, 0, acc, 0, hidden);
+    }
+
+    void add(short[] acc, int feature) {
+        int base = feature * hidden;
+        for (int i = 0; i < hidden; i++) acc[i] += weights[base + i];
+    }
+
+    void sub(short[] acc, int feature) {
+        int base = feature * hidden;
+        for (int i = 0; i < hidden; i++) acc[i] -= weights[base + i];
+    }
+}
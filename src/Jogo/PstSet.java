@@ -0,0 +1,37 @@
+package Jogo;
+
+/**
+ * Conjunto de valores de peça e tabelas peça-casa (meio-jogo e final) que
+ * o {@link Board} soma incrementalmente a cada lance. Os arrays por tipo
+ * seguem a ordem de {@link Piece} (ordinal % 6: K, Q, R, B, N, P) e as
+ * tabelas são [linha][coluna] do ponto de vista das brancas; para as
+ * pretas a linha é espelhada.
+ */
+public final class PstSet {
+    private final int[] material = new int[12];
+    private final int[][] mg = new int[12][64];
+    private final int[][] eg = new int[12][64];
+
+    public PstSet(int[] valueMg, int[] valueEg, int[][][] pstMg, int[][][] pstEg) {
+        for (Piece p : Piece.values()) {
+            int t = p.ordinal() % 6;
+            material[p.ordinal()] = valueMg[t];
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) {
+                    int row = p.isWhite() ? r : 7 - r;
+                    mg[p.ordinal()][r * 8 + c] = valueMg[t] + (pstMg == null ? 0 : pstMg[t][row][c]);
+                    eg[p.ordinal()][r * 8 + c] = valueEg[t] + (pstEg == null ? 0 : pstEg[t][row][c]);
+                }
+            }
+        }
+    }
+
+    /** Só material, sem bônus posicional (valores na ordem K, Q, R, B, N, P). */
+    public static PstSet material(int[] values) {
+        return new PstSet(values, values, null, null);
+    }
+
+    public int material(Piece p)             { return material[p.ordinal()];          }
+    public int mg(Piece p, int row, int col) { return mg[p.ordinal()][row * 8 + col]; }
+    public int eg(Piece p, int row, int col) { return eg[p.ordinal()][row * 8 + col]; }
+}
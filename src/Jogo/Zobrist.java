@@ -0,0 +1,63 @@
+package Jogo;
+
+/**
+ * Chaves Zobrist usadas pelo {@link Board} para manter o hash da posição
+ * incrementalmente. Geradas com semente fixa, então o hash é o mesmo em
+ * toda execução.
+ */
+public final class Zobrist {
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long WHITE_TO_MOVE;
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int p = 0; p < 12; p++) {
+            for (int sq = 0; sq < 64; sq++) {
+                seed = next(seed);
+                PIECE_SQUARE[p][sq] = mix(seed);
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            seed = next(seed);
+            CASTLING[i] = mix(seed);
+        }
+        for (int f = 0; f < 8; f++) {
+            seed = next(seed);
+            EN_PASSANT_FILE[f] = mix(seed);
+        }
+        seed = next(seed);
+        WHITE_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {}
+
+    public static long piece(Piece p, int row, int col) {
+        return PIECE_SQUARE[p.ordinal()][row * 8 + col];
+    }
+
+    /** @param rights máscara KQkq (bit 0 = K, 1 = Q, 2 = k, 3 = q) */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassant(int col) {
+        return EN_PASSANT_FILE[col];
+    }
+
+    public static long whiteToMove() {
+        return WHITE_TO_MOVE;
+    }
+
+    // SplitMix64
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,23 +1,32 @@
 package app;
 
 import Jogo.Board;
-import Jogo.Board.GameResult;
 import Jogo.Move;
 import ai.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main {
     private static final long MOVE_DELAY_MS = 2000;  // time per move
+    static final String BITBASE_FILE = "bitbases.bin";  // gerado na primeira execução
+    static final String BOOK_FILE = "book.bin";          // opcional: livro Polyglot
+    static final String POLYGLOT_RANDOM_FILE = "polyglot-random64.txt";
+    static final String NNUE_FILE = "nnue.bin";          // opcional: rede da avaliação
+    static final String EVAL_PARAMS_FILE = "eval.params"; // opcional: saída do app.Tuner
 
-    private static class Opening {
+    static class Opening {
         final String name;
         final String fen;
         Opening(String name, String fen) { this.name = name; this.fen = fen; }
     }
 
-    private static final Opening[] OPENINGS = new Opening[]{
+    static final Opening[] OPENINGS = new Opening[]{
             new Opening("Defend Mate",      "5rq1/8/8/1p6/1P6/8/k7/7K w - - 0 1"),
             new Opening("TACTIC",      "3r1k2/1q3p2/4p2p/3pQ3/7P/p1P1PR2/6P1/6K1 w - - 0 1"),
-            new Opening("Defend Mate",      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"),
+            new Opening("Start Position",   "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"),
             new Opening("Ruy Lopez, Morphy","r1bqkbnr/1pp1pppp/p1n5/1B1p4/4P3/5N2/PPPP1PPP/RN1QKB1R w KQkq - 0 4"),
             new Opening("OP2",              "rn1qkb1r/ppp1pppp/5n2/3p4/3P2b1/2P2N2/PP2PPPP/RNBQKB1R w KQkq - 1 4"),
             new Opening("OP3",              "rn1qk2r/p1pp1ppp/bp2pn2/8/1bPP4/1P3NP1/P3PP1P/RNBQKB1R w KQkq - 1 6"),
@@ -34,87 +43,82 @@ public class Main {
             new Opening("OP15",    "r3kb1r/pp1b1ppp/1qn1p2n/2ppP3/5PP1/2PP1N2/PP2B2P/RNBQ1RK1 w kq - 1 10")
     };
 
-    public static void main(String[] args) {
-        AlphaBetaC2 abC2AI = new AlphaBetaC2();
-        BetterSquares BQ      = new BetterSquares();
-
-        int winsMinimax = 0, winsAB = 0, draws = 0;
-        int idx = 1;
-
-        for (Opening op : OPENINGS) {
-            // vamos rodar duas partidas: (AB vs Minimax) e (Minimax vs AB)
-            for (int role = 0; role < 2; role++) {
-                boolean abPlaysWhite = (role == 0);
+    public static void main(String[] args) throws InterruptedException {
+        // motores escolhidos pelo nome: java app.Main [motor1] [motor2] [--headless] [--pgn arquivo]
+        // --headless: sem tabuleiro nem mensagens de busca, só o resultado de cada partida
+        // --pgn: grava as partidas em PGN, com score e profundidade de cada lance (".gz" comprime)
+        // --adjudicate: encerra partidas decididas pelo score ou sem material para mate
+        // --openings arquivo [--sample N] [--seed N]: aberturas de uma suíte EPD/FEN (ver OpeningSuite)
+        // As partidas são as do Tournament, uma por vez; aqui só se desenha o tabuleiro.
+        List<String> names = new ArrayList<>();
+        boolean headless = false, adjudicate = false;
+        String pgnFile = null, openingsFile = null;
+        int sample = 0;
+        Long seed = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--headless")) headless = true;
+            else if (args[i].equals("--adjudicate")) adjudicate = true;
+            else if (args[i].equals("--pgn")) pgnFile = args[++i];
+            else if (args[i].equals("--openings")) openingsFile = args[++i];
+            else if (args[i].equals("--sample")) sample = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--seed")) seed = Long.parseLong(args[++i]);
+            else if (!args[i].startsWith("--")) names.add(args[i]);
+        }
+        String nameA = names.size() > 0 ? names.get(0) : "BetterSquares";
+        String nameB = names.size() > 1 ? names.get(1) : "AlphaBetaC2";
 
-                clearConsole();
-                System.out.println("=== Opening " + idx + ": " + op.name
-                        + "   [Partida " + (role+1)
-                        + ": " + (abPlaysWhite ? "BQ ♔ vs ABC2 ♚"
-                        : "ABC2 ♔ vs BQ ♚")
-                        + "] ===");
+        List<Opening> openings = openingsFile != null
+                ? OpeningSuite.load(Path.of(openingsFile)) : List.of(OPENINGS);
+        if (sample > 0 || seed != null) openings = OpeningSuite.sample(openings, sample, seed != null ? seed : 1);
 
-                Board board = new Board();
-                board.loadFromFEN(op.fen);
-                printBoard(board);
+        Tournament games = new Tournament(nameA, nameB, openings, SearchRequest.of(SearchLimits.time(MOVE_DELAY_MS)),
+                new Sprt(0, 5, 0.05, 0.05), false);
+        games.setQuiet(headless);
+        if (adjudicate) games.setAdjudicator(Adjudicator.defaults());
+        if (pgnFile != null) games.setPgn(new PgnWriter(Path.of(pgnFile), nameA + " vs " + nameB, true));
+        if (!headless) games.setObserver(new BoardView());
+        games.runAndReport(1, 1);
+    }
 
-                // joga até o fim
-                while (!board.isGameOver()) {
-                    boolean whiteToMove = board.isWhiteToMove();
-                    Move chosen;
-                    if (whiteToMove == abPlaysWhite) {
-                        // turno do AlphaBeta
-                        chosen = BQ.findBestMoveAlphaBetaTimed(board, whiteToMove, MOVE_DELAY_MS);
-                        System.out.println((whiteToMove ? "White(BQ)" : "Black(BQ)") + " plays: " + chosen);
-                    } else {
-                        // turno do Minimax
-                        chosen = abC2AI.findBestMoveAlphaBetaTimed(board, whiteToMove, MOVE_DELAY_MS);
-                        System.out.println((whiteToMove ? "White(ABC2)" : "Black(ABC2)") + " plays: " + chosen);
-                    }
-                    if (chosen == null) break;
-                    board.makeMove(chosen);
-                    clearConsole();
-                    printBoard(board);
-                }
+    /** Desenha cada partida no terminal enquanto ela é jogada. */
+    private static final class BoardView implements Tournament.Observer {
+        @Override
+        public void gameStarted(int number, int pair, Opening opening, String white, String black, Board board) {
+            clearConsole();
+            System.out.println("=== Opening " + (pair + 1) + ": " + opening.name
+                    + "   [Partida " + number + ": " + white + " ♔ vs " + black + " ♚] ===");
+            printBoard(board);
+        }
 
-                // quem venceu?
-                GameResult result = board.getGameResult();
-                switch (result) {
-                    case WHITE_WINS:
-                        if (abPlaysWhite) {
-                            winsAB++;
-                            System.out.println("Result: BQ wins");
-                        } else {
-                            winsMinimax++;
-                            System.out.println("Result: ABC2 wins");
-                        }
-                        break;
-                    case BLACK_WINS:
-                        if (!abPlaysWhite) {
-                            winsAB++;
-                            System.out.println("Result: BQ wins");
-                        } else {
-                            winsMinimax++;
-                            System.out.println("Result: ABC2 wins");
-                        }
-                        break;
-                    case DRAW:
-                        draws++;
-                        System.out.println("Result: Draw");
-                        break;
-                    default:
-                        System.out.println("Result: Unknown");
-                }
-                System.out.println();
-            }
+        @Override
+        public void movePlayed(Board board, Move move, EngineResult search, String engine) {
+            String side = board.isWhiteToMove() ? "Black" : "White";   // já é a vez do outro lado
+            System.out.println(search == null ? side + " plays (book): " + move
+                    : side + "(" + engine + ") plays: " + move);
+            clearConsole();
+            printBoard(board);
+        }
 
-            idx++;
+        @Override
+        public void gameFinished(GameRecord game) {
+            String outcome = switch (game.result) {
+                case WHITE_WINS -> "Result: " + game.white + " wins";
+                case BLACK_WINS -> "Result: " + game.black + " wins";
+                case DRAW       -> "Result: Draw";
+                default         -> "Result: Unknown";
+            };
+            if (!game.termination.equals("normal")) outcome += " (" + game.termination + ")";
+            System.out.println(outcome);
+            System.out.println();
         }
+    }
 
-        // Estatísticas agregadas
-        System.out.println("=== Aggregate Results ===");
-        System.out.println("AlphaBetaC2 wins: " + winsAB);
-        System.out.println("BQ    wins: " + winsMinimax);
-        System.out.println("Draws          : " + draws);
+    /** Livro Polyglot, se o livro e os números Random64 estiverem no diretório. */
+    static PolyglotBook loadBook() {
+        if (!Files.exists(Path.of(BOOK_FILE)) || !Files.exists(Path.of(POLYGLOT_RANDOM_FILE))) return null;
+        PolyglotBook book = PolyglotBook.open(Path.of(BOOK_FILE), PolyglotKeys.load(Path.of(POLYGLOT_RANDOM_FILE)));
+        System.out.println("Livro " + BOOK_FILE + ": " + book.size() + " entradas");
+        return book;
     }
 
     /** Limpa a console (ANSI). */
@@ -123,20 +127,20 @@ public class Main {
         System.out.flush();
     }
 
-    /** Desenha o tabuleiro no terminal. */
+    /** Desenha o tabuleiro no terminal, numa escrita só. */
     private static void printBoard(Board board) {
-        System.out.println();
+        StringBuilder sb = new StringBuilder("\n");
         for (int r = 7; r >= 0; r--) {
-            System.out.print((r + 1) + " | ");
+            sb.append(r + 1).append(" | ");
             for (int c = 0; c < 8; c++) {
                 var p = board.getPiece(r, c);
                 char sym = (p != null) ? p.getSymbol() : '.';
-                System.out.print(sym + " ");
+                sb.append(sym).append(' ');
             }
-            System.out.println();
+            sb.append('\n');
         }
-        System.out.println("   ----------------");
-        System.out.println("    a b c d e f g h");
-        System.out.println();
+        sb.append("   ----------------\n");
+        sb.append("    a b c d e f g h\n");
+        System.out.println(sb);
     }
 }
@@ -0,0 +1,154 @@
+package app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Suítes de aberturas em arquivos EPD ou FEN, uma posição por linha. Linhas
+ * vazias e as que começam com '#' são ignoradas. Numa linha EPD, depois dos
+ * quatro campos da posição, a operação {@code id "nome";} dá o nome da
+ * abertura e {@code hmvc}/{@code fmvn} os contadores; numa linha FEN os
+ * contadores são os campos 5 e 6. Sem {@code id}, o nome é
+ * "arquivo:linha". Arquivos ".gz" são lidos descomprimindo no caminho.
+ *
+ * A leitura é uma varredura de caracteres por linha, sem expressões
+ * regulares nem montagem de tabuleiro: a posição só é carregada quando a
+ * partida começa, então suítes de centenas de milhares de linhas carregam
+ * em cerca de um segundo.
+ */
+final class OpeningSuite {
+    private OpeningSuite() {}
+
+    static List<Main.Opening> load(Path file) {
+        String source = file.getFileName().toString();
+        List<Main.Opening> openings = new ArrayList<>();
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = source.endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            int lineNumber = 0;
+            for (String line; (line = reader.readLine()) != null; ) {
+                lineNumber++;
+                Main.Opening opening = parse(line, source + ":" + lineNumber);
+                if (opening != null) openings.add(opening);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + file, e);
+        }
+        if (openings.isEmpty()) throw new IllegalArgumentException("Nenhuma abertura em " + file);
+        return openings;
+    }
+
+    /** Embaralha com a semente e fica com as {@code count} primeiras (todas se count <= 0). */
+    static List<Main.Opening> sample(List<Main.Opening> openings, int count, long seed) {
+        List<Main.Opening> shuffled = new ArrayList<>(openings);
+        Collections.shuffle(shuffled, new Random(seed));
+        return count > 0 && count < shuffled.size() ? new ArrayList<>(shuffled.subList(0, count)) : shuffled;
+    }
+
+    /**
+     * Uma linha EPD ou FEN; null para linha vazia ou comentário.
+     *
+     * @param where nome padrão e local para mensagens de erro
+     */
+    static Main.Opening parse(String line, String where) {
+        int len = line.length(), pos = skipSpaces(line, 0);
+        if (pos == len || line.charAt(pos) == '#') return null;
+
+        // quatro campos da posição: peças, lado, roque, en passant
+        int start = pos;
+        for (int field = 0; field < 4; field++) {
+            if (pos == len) throw new IllegalArgumentException(where + ": posição com menos de 4 campos");
+            pos = skipSpaces(line, skipWord(line, pos));
+        }
+        String position = line.substring(start, pos).trim();
+        if (!validPlacement(position)) throw new IllegalArgumentException(where + ": posição inválida: " + position);
+
+        String name = where, halfmove = "0", fullmove = "1";
+        int first = pos, second = skipSpaces(line, skipWord(line, first));
+        if (isNumber(line, first) && isNumber(line, second)) {
+            // FEN completa
+            halfmove = line.substring(first, skipWord(line, first));
+            fullmove = line.substring(second, skipWord(line, second));
+        } else {
+            // operações EPD: "opcode operandos;"
+            while (pos < len) {
+                int end = operationEnd(line, pos);
+                int opEnd = skipWord(line, pos);
+                String opcode = line.substring(pos, Math.min(opEnd, end));
+                String operand = line.substring(Math.min(skipSpaces(line, opEnd), end), end).trim();
+                switch (opcode) {
+                    case "id"   -> name = unquote(operand);
+                    case "hmvc" -> halfmove = operand;
+                    case "fmvn" -> fullmove = operand;
+                    default -> { }
+                }
+                pos = skipSpaces(line, Math.min(end + 1, len));
+            }
+        }
+        return new Main.Opening(name, position + " " + halfmove + " " + fullmove);
+    }
+
+    /** Oito fileiras de oito casas, só com letras de peça e dígitos. */
+    private static boolean validPlacement(String position) {
+        int ranks = 1, squares = 0;
+        for (int i = 0; i < position.length(); i++) {
+            char c = position.charAt(i);
+            if (c == ' ') break;
+            if (c == '/') {
+                if (squares != 8) return false;
+                ranks++;
+                squares = 0;
+            } else if (c >= '1' && c <= '8') {
+                squares += c - '0';
+            } else if ("pnbrqkPNBRQK".indexOf(c) >= 0) {
+                squares++;
+            } else {
+                return false;
+            }
+        }
+        return ranks == 8 && squares == 8;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipWord(String s, int i) {
+        while (i < s.length() && !Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isNumber(String s, int i) {
+        int end = skipWord(s, i);
+        if (end == i) return false;
+        for (int k = i; k < end; k++) if (s.charAt(k) < '0' || s.charAt(k) > '9') return false;
+        return true;
+    }
+
+    /** Posição do ';' que fecha a operação, ignorando os que estão entre aspas. */
+    private static int operationEnd(String s, int i) {
+        boolean quoted = false;
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == ';' && !quoted) return i;
+        }
+        return s.length();
+    }
+
+    private static String unquote(String s) {
+        return s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"") ? s.substring(1, s.length() - 1) : s;
+    }
+}
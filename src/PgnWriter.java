@@ -0,0 +1,165 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Move;
+import ai.EngineResult;
+import ai.MoveGenerator;
+import ai.San;
+import ai.SearchLimits;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Grava partidas em PGN, em lances SAN, à medida que terminam. Cada
+ * partida vira texto inteiro na thread que a jogou (reproduzir os lances e
+ * gerar o SAN é a parte cara) e só a string pronta entra na fila de um
+ * {@link AsyncWriter}; partidas simultâneas não esperam umas pelas outras.
+ * O arquivo é aberto para acréscimo; com nome terminado em ".gz" sai
+ * comprimido, e execuções seguidas viram membros gzip concatenados, que
+ * os leitores de gzip leem como um arquivo só.
+ */
+final class PgnWriter implements AutoCloseable {
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final int LINE_WIDTH = 79;
+
+    private final AsyncWriter out;
+    private final String event;
+    private final String date = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd"));
+    private final boolean comments;
+
+    /**
+     * @param event    valor da tag Event
+     * @param comments escreve "{score/profundidade}" depois de cada lance buscado
+     */
+    PgnWriter(Path file, String event, boolean comments) {
+        try {
+            OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (file.toString().endsWith(".gz")) stream = new GZIPOutputStream(stream, 1 << 16);
+            this.out = new AsyncWriter(stream, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir " + file, e);
+        }
+        this.event = event;
+        this.comments = comments;
+    }
+
+    /** Formata a partida nesta thread e a põe na fila de gravação. */
+    void write(GameRecord game, SearchLimits limits) {
+        out.println(format(game, limits));
+    }
+
+    /** @param limits limites por lance, ou null para omitir TimeControl e SearchLimits */
+    String format(GameRecord game, SearchLimits limits) {
+        StringBuilder sb = new StringBuilder(1024);
+        String fen = game.opening.fen;
+        tag(sb, "Event", event);
+        tag(sb, "Site", "?");
+        tag(sb, "Date", date);
+        tag(sb, "Round", String.valueOf(game.number));
+        tag(sb, "White", game.white);
+        tag(sb, "Black", game.black);
+        tag(sb, "Result", game.resultTag());
+        if (!fen.equals(START_FEN)) {
+            tag(sb, "SetUp", "1");
+            tag(sb, "FEN", fen);
+        }
+        tag(sb, "Opening", game.opening.name);
+        if (limits != null) {
+            tag(sb, "TimeControl", timeControl(limits));
+            tag(sb, "SearchLimits", limits.toString());
+        }
+        tag(sb, "Termination", game.termination);
+        tag(sb, "PlyCount", String.valueOf(game.moves.size()));
+        sb.append('\n');
+
+        Board board = new Board();
+        board.loadFromFEN(fen);
+        MoveGenerator moveGen = new MoveGenerator();
+        Line line = new Line(sb);
+        for (int i = 0; i < game.moves.size(); i++) {
+            Move move = game.moves.get(i);
+            boolean white = board.isWhiteToMove();
+            if (white) line.add(board.getFullmoveNumber() + ".");
+            else if (i == 0) line.add(board.getFullmoveNumber() + "...");
+            List<Move> legal = moveGen.generateLegalMoves(board, white);
+            line.add(San.format(board, move, legal));
+            if (comments) {
+                EngineResult search = game.searches.get(i);
+                if (search != null && search.getDepth() > 0) line.add("{" + score(search) + "/" + search.getDepth() + "}");
+            }
+            board.makeMove(move);
+        }
+        line.add(game.resultTag());
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Score em peões da perspectiva das brancas; "+M3" para mate em 3 lances
+     * (contados pela PV) e "+BB" para vitória provada pelos bitbases.
+     */
+    private static String score(EngineResult search) {
+        int cp = search.getScore();
+        String sign = cp > 0 ? "+" : "-";
+        if (EngineResult.isMate(cp)) {
+            int plies = search.getPv().size();
+            return plies > 0 ? sign + "M" + (plies + 1) / 2 : sign + "M";
+        }
+        if (EngineResult.isDecided(cp)) return sign + "BB";
+        return String.format(Locale.ROOT, "%+.2f", cp / 100.0);
+    }
+
+    /**
+     * TimeControl do padrão PGN: "1/S" (um lance a cada S segundos) para
+     * tempo fixo em segundos inteiros, "-" sem relógio (nós ou profundidade)
+     * e "?" para o resto; os limites exatos vão na tag SearchLimits.
+     */
+    private static String timeControl(SearchLimits limits) {
+        long ms = limits.getTimeMs();
+        if (ms == 0) return "-";
+        if (ms % 1000 == 0 && limits.getNodes() == 0 && limits.getDepth() == 0) return "1/" + ms / 1000;
+        return "?";
+    }
+
+    private static void tag(StringBuilder sb, String name, String value) {
+        sb.append('[').append(name).append(" \"")
+          .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+          .append("\"]\n");
+    }
+
+    /** Texto dos lances quebrado em linhas de até {@link #LINE_WIDTH} colunas. */
+    private static final class Line {
+        private final StringBuilder sb;
+        private int width;
+
+        Line(StringBuilder sb) { this.sb = sb; }
+
+        void add(String token) {
+            if (width > 0 && width + 1 + token.length() > LINE_WIDTH) {
+                sb.append('\n');
+                width = 0;
+            }
+            if (width > 0) {
+                sb.append(' ');
+                width++;
+            }
+            sb.append(token);
+            width += token.length();
+        }
+    }
+
+    @Override
+    public void close() {
+        out.close();
+    }
+}
@@ -3,20 +3,50 @@ package app;
 import Jogo.Board;
 import Jogo.Board.GameResult;
 import Jogo.Move;
-import ai.AlphaBetaB;
 import ai.AlphaBetaC2;
+import ai.EndgameBitbases;
+import ai.Engine;
+import ai.EngineResult;
+import ai.Engines;
+import ai.EvalParams;
 import ai.MoveGenerator;
+import ai.Nnue;
+import ai.PolyglotBook;
+import ai.SearchLimits;
+import ai.SearchRequest;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 public class Simulator {
     private static final long MOVE_DELAY_MS = 500;  // tempo por movimento em ms
 
     public static void main(String[] args) {
-        AlphaBetaC2 ai = new AlphaBetaC2();
+        // java app.Simulator [--engine Nome] [--no-ponder] [--pgn arquivo]
+        int engineArg = Arrays.asList(args).indexOf("--engine");
+        Engine ai = Engines.create(engineArg >= 0 ? args[engineArg + 1] : "AlphaBetaC2");
+        SearchRequest request = SearchRequest.of(SearchLimits.time(MOVE_DELAY_MS));
+        ai.setBitbases(EndgameBitbases.loadOrGenerate(Path.of(Main.BITBASE_FILE), EndgameBitbases.ALL));
+        if (Files.exists(Path.of(Main.EVAL_PARAMS_FILE))) {
+            ai.setEvalParams(EvalParams.load(Path.of(Main.EVAL_PARAMS_FILE)));
+        }
+        if (Files.exists(Path.of(Main.NNUE_FILE))) {
+            ai.setNetwork(Nnue.load(Path.of(Main.NNUE_FILE)));
+        }
+        // só o AlphaBetaC2 sabe pensar no tempo do adversário
+        AlphaBetaC2 ponderer = ai instanceof AlphaBetaC2 c2 && !Arrays.asList(args).contains("--no-ponder")
+                ? c2 : null;
         MoveGenerator moveGen = new MoveGenerator();
+        PolyglotBook book = Main.loadBook();
+        Random bookRandom = new Random();
         Scanner scanner = new Scanner(System.in);
+        int pgnArg = Arrays.asList(args).indexOf("--pgn");
+        PgnWriter pgn = pgnArg >= 0 ? new PgnWriter(Path.of(args[pgnArg + 1]), "Simulator", true) : null;
 
         // Escolha de FEN ou posição inicial
         Board board = new Board();
@@ -27,15 +57,31 @@ public class Simulator {
             String fen = scanner.nextLine().trim();
             board.loadFromFEN(fen);
         }
+        Main.Opening start = new Main.Opening(opt.equals("fen") ? "FEN" : "Posição inicial", board.generateFEN());
+        List<Move> moves = new ArrayList<>();
+        List<EngineResult> searches = new ArrayList<>();
 
         clearConsole();
         printBoard(board);
         System.out.println("Você joga com as brancas. Lance no formato longo ex: e2e4 ");
 
+        Move expected = null;   // resposta em que a IA pensa durante o turno humano
+        Move lastHuman = null;
         while (!board.isGameOver()) {
             if (board.isWhiteToMove()) {
                 // jogador humano
                 List<Move> legal = moveGen.generateLegalMoves(board, true);
+
+                // ponder: enquanto o humano pensa, a IA busca na posição esperada
+                expected = ponderer != null ? ponderer.getPonderMove() : null;
+                if (expected != null && legal.contains(expected)) {
+                    Board ponderBoard = new Board(board);
+                    ponderBoard.makeMove(expected);
+                    ponderer.startPondering(ponderBoard, false);
+                } else {
+                    expected = null;
+                }
+
                 System.out.println("Jogadas legais: " + legal);
                 Move human = null;
                 while (human == null) {
@@ -52,12 +98,31 @@ public class Simulator {
                     }
                 }
                 board.makeMove(human);
+                moves.add(human);
+                searches.add(null);
+                lastHuman = human;
             } else {
                 // ABB joga
                 System.out.println("ABB pensando...");
-                Move aiMove = ai.findBestMoveAlphaBetaTimed(board, false, MOVE_DELAY_MS);
+                Move aiMove = book != null ? book.weightedMove(board, bookRandom) : null;
+                EngineResult search = null;
+                if (aiMove != null) {
+                    if (ponderer != null) ponderer.stopPondering();
+                    System.out.println("(livro)");
+                } else if (expected != null && expected.equals(lastHuman)) {
+                    System.out.println("(ponder hit)");
+                    search = ponderer.ponderHit(MOVE_DELAY_MS);
+                    aiMove = search.getMove();
+                } else {
+                    // ponder miss: cancela e busca de novo, reaproveitando a tabela
+                    search = ai.search(board, request);
+                    aiMove = search.getMove();
+                }
+                expected = null;
                 System.out.println("ABB joga: " + aiMove + "\n");
                 board.makeMove(aiMove);
+                moves.add(aiMove);
+                searches.add(search);
             }
             clearConsole();
             printBoard(board);
@@ -71,6 +136,12 @@ public class Simulator {
             case DRAW:       System.out.println("Empate."); break;
             default:         System.out.println("Fim de jogo.");
         }
+        if (ponderer != null) ponderer.stopPondering();
+        if (pgn != null) {
+            pgn.write(new GameRecord(1, 0, start, "Humano", ai.getName(), true,
+                    moves, searches, result, "normal"), request.getLimits());
+            pgn.close();
+        }
         scanner.close();
     }
 
@@ -0,0 +1,104 @@
+package app;
+
+/**
+ * Teste sequencial da razão de probabilidades (SPRT) sobre pares de
+ * partidas, com estatística pentanomial: cada par (mesma abertura, cores
+ * trocadas) vale 0, 0.5, 1, 1.5 ou 2 pontos para o motor testado. O LLR
+ * usa a aproximação normal do GSPRT,
+ * N·(s1 − s0)·(2x̄ − s0 − s1) / (2σ²), com x̄ e σ² a média e a variância do
+ * score por par e s0, s1 os scores esperados em elo0 e elo1; o teste para
+ * em ln(β / (1 − α)) (H0 aceita) ou ln((1 − β) / α) (H1 aceita).
+ */
+final class Sprt {
+    private static final double Z95 = 1.959964;
+
+    private final double elo0, elo1;
+    private final double lower, upper;
+    private final long[] pairs = new long[5];   // pares com 0, 0.5, 1, 1.5 e 2 pontos
+
+    Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("SPRT exige elo0 < elo1 e 0 < alpha, beta < 1");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lower = Math.log(beta / (1 - alpha));
+        this.upper = Math.log((1 - beta) / alpha);
+    }
+
+    /** Soma um par; {@code points} são os pontos do motor testado nas duas partidas. */
+    void addPair(double points) {
+        pairs[(int) Math.round(points * 2)]++;
+    }
+
+    long pairCount() {
+        long n = 0;
+        for (long p : pairs) n += p;
+        return n;
+    }
+
+    /** Média do score por partida, de 0 a 1. */
+    double mean() {
+        long n = pairCount();
+        if (n == 0) return 0.5;
+        double sum = 0;
+        for (int i = 0; i < 5; i++) sum += pairs[i] * i / 4.0;
+        return sum / n;
+    }
+
+    /** Variância do score médio por partida de um par. */
+    double variance() {
+        long n = pairCount();
+        if (n == 0) return 0;
+        double mean = mean(), sum = 0;
+        for (int i = 0; i < 5; i++) {
+            double d = i / 4.0 - mean;
+            sum += pairs[i] * d * d;
+        }
+        return sum / n;
+    }
+
+    double llr() {
+        double var = variance();
+        if (var == 0) return 0;
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return pairCount() * (s1 - s0) * (2 * mean() - s0 - s1) / (2 * var);
+    }
+
+    double lowerBound() { return lower; }
+    double upperBound() { return upper; }
+
+    /** 1 se H1 foi aceita (ganho de pelo menos elo1), −1 se H0, 0 se ainda falta. */
+    int decision() {
+        double llr = llr();
+        return llr >= upper ? 1 : llr <= lower ? -1 : 0;
+    }
+
+    /** Diferença de Elo estimada pelo score médio. */
+    double elo() {
+        return elo(mean());
+    }
+
+    /** Meia largura do intervalo de 95% da diferença de Elo. */
+    double eloError() {
+        long n = pairCount();
+        if (n == 0) return Double.POSITIVE_INFINITY;
+        double margin = Z95 * Math.sqrt(variance() / n);
+        return (elo(Math.min(mean() + margin, 1)) - elo(Math.max(mean() - margin, 0))) / 2;
+    }
+
+    /** Contagem dos pares, de 0 a 2 pontos. */
+    String pentanomial() {
+        return "[" + pairs[0] + ", " + pairs[1] + ", " + pairs[2] + ", " + pairs[3] + ", " + pairs[4] + "]";
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
@@ -0,0 +1,317 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Board.GameResult;
+import Jogo.Move;
+import ai.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Torneio entre dois motores nas aberturas de {@link Main#OPENINGS} ou de uma
+ * suíte EPD ({@link OpeningSuite}), cada uma jogada com as duas cores. As
+ * partidas rodam em paralelo num pool de tamanho fixo; cada partida cria
+ * seus próprios motores pelo {@link Engines}, e só os recursos de leitura
+ * (bitbases, livro, parâmetros, rede) são compartilhados. O pool padrão tem
+ * um jogo por núcleo; os motores buscam com uma thread só.
+ * Os motores jogam calados e as linhas de resultado saem por um
+ * {@link AsyncWriter}, fora do tempo de busca. O {@link Main} usa o mesmo
+ * laço com uma partida por vez e um {@link Observer} que desenha o
+ * tabuleiro.
+ *
+ * Os pares de partidas (mesma abertura e rodada, cores trocadas) alimentam
+ * um {@link Sprt}: o resumo traz a estatística pentanomial e o Elo com
+ * intervalo de 95%, e com --sprt o torneio para assim que o LLR cruza um
+ * dos limites; as partidas ainda não começadas são descartadas.
+ *
+ * Uso: java app.Tournament [motorA] [motorB] [opções]
+ *   --time MS | --nodes N | --depth N   limite por lance (padrão --time 2000)
+ *   --concurrency N   partidas simultâneas (padrão: número de núcleos)
+ *   --rounds N        repetições do conjunto de aberturas (padrão 1)
+ *   --hash MB         tabela de transposição de cada motor (padrão 16)
+ *   --openings ARQ    suíte de aberturas EPD/FEN no lugar de Main.OPENINGS
+ *   --sample N        usa N aberturas sorteadas da suíte
+ *   --seed N          semente do sorteio (padrão 1); embaralha mesmo sem --sample
+ *   --sprt E0 E1      para cedo ao decidir entre Elo E0 e E1 (rodadas padrão 100)
+ *   --alpha X --beta X  erros do SPRT (padrão 0.05)
+ *   --pgn ARQUIVO     grava as partidas em PGN (".gz" comprime)
+ *   --pgn-comments    inclui score e profundidade de cada lance no PGN
+ *   --adjudicate      encerra partidas decididas ({@link Adjudicator#defaults()})
+ *   --resign CP N     adjudica vitória com |score| >= CP por N lances de cada lado
+ *   --draw CP N MOVE  adjudica empate com |score| <= CP por N lances, a partir do lance MOVE
+ */
+public class Tournament {
+    private final String engineA, engineB;
+    private final SearchRequest request;
+    private final EndgameBitbases bitbases;
+    private final EvalParams params;
+    private final Nnue network;
+    private final PolyglotBook book;
+    private final List<Main.Opening> openings;
+
+    private final Sprt sprt;
+    private final boolean stopEarly;
+    private final AsyncWriter out = AsyncWriter.stdout();
+    private PgnWriter pgn;
+    private Adjudicator adjudicator;
+    private Observer observer;
+    private boolean quiet = true;        // mensagens de busca dos motores
+
+    // placar do primeiro motor; as partidas terminam em threads diferentes
+    private int winsA, winsB, draws;
+    private final Map<Integer, Double> openPairs = new HashMap<>();   // par → pontos da 1ª partida
+    private volatile boolean stopped;
+
+    /**
+     * Acompanha as partidas lance a lance, na thread de cada partida; com
+     * mais de uma partida simultânea as chamadas se misturam.
+     */
+    interface Observer {
+        default void gameStarted(int number, int pair, Main.Opening opening, String white, String black, Board board) {}
+
+        /** @param board posição depois do lance; {@code search} é null nos lances de livro */
+        default void movePlayed(Board board, Move move, EngineResult search, String engine) {}
+
+        /** No lugar da linha de resultado do torneio. */
+        default void gameFinished(GameRecord game) {}
+    }
+
+    Tournament(String engineA, String engineB, List<Main.Opening> openings, SearchRequest request,
+               Sprt sprt, boolean stopEarly) {
+        this.engineA = engineA;
+        this.openings = List.copyOf(openings);
+        this.engineB = engineB;
+        this.request = request;
+        this.sprt = sprt;
+        this.stopEarly = stopEarly;
+        this.bitbases = EndgameBitbases.loadOrGenerate(Path.of(Main.BITBASE_FILE), EndgameBitbases.ALL);
+        this.params = Files.exists(Path.of(Main.EVAL_PARAMS_FILE)) ? EvalParams.load(Path.of(Main.EVAL_PARAMS_FILE)) : null;
+        this.network = Files.exists(Path.of(Main.NNUE_FILE)) ? Nnue.load(Path.of(Main.NNUE_FILE)) : null;
+        this.book = Main.loadBook();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<String> names = new ArrayList<>();
+        SearchLimits limits = SearchLimits.time(2000);
+        int concurrency = 0, rounds = 0, hash = SearchRequest.DEFAULT_HASH_MB;
+        double elo0 = 0, elo1 = 5, alpha = 0.05, beta = 0.05;
+        boolean stopEarly = false, pgnComments = false;
+        String pgnFile = null, openingsFile = null;
+        int sample = 0;
+        Long seed = null;
+        boolean adjudicate = false;
+        int resignScore = 1000, resignMoves = 4, drawScore = 10, drawMoves = 8, drawMoveNumber = 40;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--time"        -> limits = SearchLimits.time(Long.parseLong(args[++i]));
+                case "--nodes"       -> limits = SearchLimits.nodes(Long.parseLong(args[++i]));
+                case "--depth"       -> limits = SearchLimits.depth(Integer.parseInt(args[++i]));
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--rounds"      -> rounds = Integer.parseInt(args[++i]);
+                case "--hash"        -> hash = Integer.parseInt(args[++i]);
+                case "--openings"    -> openingsFile = args[++i];
+                case "--sample"      -> sample = Integer.parseInt(args[++i]);
+                case "--seed"        -> seed = Long.parseLong(args[++i]);
+                case "--sprt"        -> {
+                    elo0 = Double.parseDouble(args[++i]);
+                    elo1 = Double.parseDouble(args[++i]);
+                    stopEarly = true;
+                }
+                case "--alpha"       -> alpha = Double.parseDouble(args[++i]);
+                case "--beta"        -> beta = Double.parseDouble(args[++i]);
+                case "--pgn"         -> pgnFile = args[++i];
+                case "--pgn-comments" -> pgnComments = true;
+                case "--adjudicate"  -> adjudicate = true;
+                case "--resign"      -> {
+                    resignScore = Integer.parseInt(args[++i]);
+                    resignMoves = Integer.parseInt(args[++i]);
+                    adjudicate = true;
+                }
+                case "--draw"        -> {
+                    drawScore = Integer.parseInt(args[++i]);
+                    drawMoves = Integer.parseInt(args[++i]);
+                    drawMoveNumber = Integer.parseInt(args[++i]);
+                    adjudicate = true;
+                }
+                default -> names.add(args[i]);
+            }
+        }
+        if (rounds <= 0) rounds = stopEarly ? 100 : 1;
+        if (concurrency <= 0) concurrency = Runtime.getRuntime().availableProcessors();
+        String a = names.size() > 0 ? names.get(0) : "BetterSquares";
+        String b = names.size() > 1 ? names.get(1) : "AlphaBetaC2";
+
+        List<Main.Opening> openings = openingsFile != null
+                ? OpeningSuite.load(Path.of(openingsFile)) : List.of(Main.OPENINGS);
+        if (sample > 0 || seed != null) {
+            openings = OpeningSuite.sample(openings, sample, seed != null ? seed : 1);
+        }
+
+        Tournament t = new Tournament(a, b, openings, new SearchRequest(limits, 1, hash),
+                new Sprt(elo0, elo1, alpha, beta), stopEarly);
+        if (adjudicate) {
+            t.setAdjudicator(new Adjudicator(resignScore, resignMoves, drawScore, drawMoves, drawMoveNumber));
+        }
+        if (pgnFile != null) t.setPgn(new PgnWriter(Path.of(pgnFile), a + " vs " + b, pgnComments));
+        System.out.printf("%s vs %s: %d partidas, %d simultâneas, %s%n",
+                a, b, rounds * openings.size() * 2, concurrency, t.request);
+        t.runAndReport(rounds, concurrency);
+    }
+
+    void setAdjudicator(Adjudicator adjudicator) { this.adjudicator = adjudicator; }
+    void setPgn(PgnWriter pgn)                   { this.pgn = pgn; }
+    void setObserver(Observer observer)          { this.observer = observer; }
+    void setQuiet(boolean quiet)                 { this.quiet = quiet; }
+
+    /** Joga o torneio, mostra o resumo e fecha o PGN e a saída. */
+    void runAndReport(int rounds, int concurrency) throws InterruptedException {
+        long start = System.nanoTime();
+        run(rounds, concurrency);
+        printSummary((System.nanoTime() - start) / 1_000_000);
+        if (pgn != null) pgn.close();
+        out.close();
+    }
+
+    /** Joga todas as partidas no pool e devolve os registros na ordem do torneio. */
+    List<GameRecord> run(int rounds, int concurrency) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<GameRecord>> futures = new ArrayList<>();
+        int number = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int o = 0; o < openings.size(); o++) {
+                int pair = round * openings.size() + o;
+                for (int role = 0; role < 2; role++) {
+                    int n = ++number;
+                    Main.Opening opening = openings.get(o);
+                    boolean aWhite = role == 0;
+                    futures.add(pool.submit(() -> stopped ? null : finish(play(n, pair, opening, aWhite), n)));
+                }
+            }
+        }
+        pool.shutdown();
+        List<GameRecord> records = new ArrayList<>();
+        try {
+            for (Future<GameRecord> f : futures) {
+                GameRecord game = f.get();
+                if (game != null) records.add(game);
+            }
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Partida falhou", e.getCause());
+        }
+        return records;
+    }
+
+    private Engine newEngine(String name) {
+        Engine e = Engines.create(name);
+        e.setBitbases(bitbases);
+        if (params != null) e.setEvalParams(params);
+        if (network != null) e.setNetwork(network);
+        e.setQuiet(quiet);
+        e.newGame();
+        return e;
+    }
+
+    /** Uma partida com motores novos; roda inteira na thread do pool. */
+    GameRecord play(int number, int pair, Main.Opening opening, boolean aWhite) {
+        Engine white = newEngine(aWhite ? engineA : engineB);
+        Engine black = newEngine(aWhite ? engineB : engineA);
+        Random bookRandom = new Random(number);
+        Board board = new Board();
+        board.loadFromFEN(opening.fen);
+        List<Move> moves = new ArrayList<>();
+        List<EngineResult> searches = new ArrayList<>();
+        String termination = "normal";
+        Adjudicator.Game adjudication = adjudicator != null ? adjudicator.newGame() : null;
+        GameResult adjudicated = GameResult.ONGOING;
+        if (observer != null) observer.gameStarted(number, pair, opening, white.getName(), black.getName(), board);
+
+        while (!board.isGameOver()) {
+            Move chosen = book != null ? book.weightedMove(board, bookRandom) : null;
+            EngineResult search = null;
+            Engine side = board.isWhiteToMove() ? white : black;
+            if (chosen == null) {
+                search = side.search(board, request);
+                chosen = search.getMove();
+            }
+            if (chosen == null) {
+                termination = "sem lance";
+                break;
+            }
+            board.makeMove(chosen);
+            moves.add(chosen);
+            searches.add(search);
+            if (observer != null) observer.movePlayed(board, chosen, search, side.getName());
+            if (adjudication != null) {
+                adjudicated = adjudication.update(board, search);
+                if (adjudicated != GameResult.ONGOING) {
+                    termination = "adjudicação: " + adjudication.reason();
+                    break;
+                }
+            }
+        }
+        if (adjudication != null) adjudication.finish();
+        GameResult result = adjudicated != GameResult.ONGOING ? adjudicated : board.getGameResult();
+        return new GameRecord(number, pair, opening, white.getName(), black.getName(),
+                aWhite, moves, searches, result, termination);
+    }
+
+    private GameRecord finish(GameRecord game, int number) {
+        double score = game.scoreA();
+        String status = "";
+        synchronized (this) {
+            if (score == 1) winsA++;
+            else if (score == 0) winsB++;
+            else draws++;
+            Double first = openPairs.remove(game.pair);
+            if (first == null) {
+                openPairs.put(game.pair, score);
+            } else if (!stopped) {
+                sprt.addPair(first + score);
+                if (stopEarly) {
+                    status = String.format(" LLR %.2f [%.2f, %.2f]", sprt.llr(), sprt.lowerBound(), sprt.upperBound());
+                    if (sprt.decision() != 0) {
+                        stopped = true;
+                        status += sprt.decision() > 0 ? " H1 aceita" : " H0 aceita";
+                    }
+                }
+            }
+        }
+        if (observer != null) {
+            observer.gameFinished(game);
+        } else {
+            out.printf("Partida %d: %s vs %s (%s) %s, %d lances%s%n",
+                    number, game.white, game.black, game.opening.name, game.resultTag(), game.moves.size(), status);
+        }
+        if (pgn != null) pgn.write(game, request.getLimits());
+        return game;
+    }
+
+    private synchronized void printSummary(long elapsedMs) {
+        int games = winsA + winsB + draws;
+        out.println("=== Aggregate Results ===");
+        out.println(engineA + " wins: " + winsA);
+        out.println(engineB + " wins: " + winsB);
+        out.println("Draws          : " + draws);
+        out.printf("Score %s: %.1f / %d (%d s)%n",
+                engineA, winsA + draws / 2.0, games, elapsedMs / 1000);
+        out.printf("Pares %d, pentanomial %s, Elo %.1f ± %.1f%n",
+                sprt.pairCount(), sprt.pentanomial(), sprt.elo(), sprt.eloError());
+        if (adjudicator != null) out.println(adjudicator.summary());
+        if (stopEarly) {
+            int decision = sprt.decision();
+            out.printf("SPRT: LLR %.2f [%.2f, %.2f] → %s%n", sprt.llr(), sprt.lowerBound(), sprt.upperBound(),
+                    decision > 0 ? "H1 aceita" : decision < 0 ? "H0 aceita" : "sem decisão");
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Piece;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Posições de treino em registros binários de {@value #RECORD_BYTES} bytes,
+ * big-endian como o {@link ai.Nnue}:
+ * <pre>
+ *   0  long   casas ocupadas (bit = linha * 8 + coluna)
+ *   8  16 B   4 bits por peça, na ordem dos bits acima: o ordinal da
+ *             {@link Piece}, {@value #EN_PASSANT_PAWN} para o peão que
+ *             acabou de avançar duas casas (en passant) e
+ *             {@value #CASTLING_ROOK} para torre que ainda pode rocar
+ *  24  short  score da busca, perspectiva das brancas, em centipeões
+ *  26  byte   resultado da partida: 0 pretas, 1 empate, 2 brancas
+ *  27  byte   1 se as brancas jogam
+ *  28  byte   regra dos 50 lances (meios-lances, até 255)
+ *  29  short  número do lance
+ *  31  byte   reservado
+ * </pre>
+ * Arquivos ".gz" são comprimidos; registros seguidos de muitas partidas
+ * parecidas comprimem bem.
+ */
+final class TrainingData {
+    static final int RECORD_BYTES = 32;
+    static final int RESULT_OFFSET = 26;   // byte do resultado, gravado quando a partida acaba
+    static final int EN_PASSANT_PAWN = 12, CASTLING_ROOK = 13;
+    static final int MAX_SCORE = 32_000;
+    private static final Piece[] PIECES = Piece.values();
+
+    private TrainingData() {}
+
+    /**
+     * Empacota a posição em {@code buf[off..off+32)}.
+     *
+     * @param score  score da perspectiva das brancas, limitado a ±{@value #MAX_SCORE}
+     * @param result 0, 1 ou 2 (pretas, empate, brancas)
+     */
+    static void pack(Board board, int score, int result, int fullmove, byte[] buf, int off) {
+        long occupied = board.getOccupied(true) | board.getOccupied(false);
+        putLong(buf, off, occupied);
+        for (int i = 8; i < 24; i++) buf[off + i] = 0;
+        int epPawn = board.getEnPassantRow() < 0 ? -1
+                : (board.getEnPassantRow() == 2 ? 3 : 4) * 8 + board.getEnPassantCol();
+        int n = 0;
+        for (long bb = occupied; bb != 0; bb &= bb - 1, n++) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int code = board.getPiece(sq >> 3, sq & 7).ordinal();
+            if (sq == epPawn) code = EN_PASSANT_PAWN;
+            else if (castlingRook(board, sq)) code = CASTLING_ROOK;
+            buf[off + 8 + (n >> 1)] |= (byte) (code << ((n & 1) * 4));
+        }
+        score = Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+        buf[off + 24] = (byte) (score >> 8);
+        buf[off + 25] = (byte) score;
+        buf[off + RESULT_OFFSET] = (byte) result;
+        buf[off + 27] = (byte) (board.isWhiteToMove() ? 1 : 0);
+        buf[off + 28] = (byte) Math.min(255, board.getHalfmoveClock());
+        buf[off + 29] = (byte) (fullmove >> 8);
+        buf[off + 30] = (byte) fullmove;
+        buf[off + 31] = 0;
+    }
+
+    /** Torre no canto com o roque daquele lado ainda permitido; direitos sem a torre se perdem. */
+    private static boolean castlingRook(Board board, int sq) {
+        Piece p = board.getPiece(sq >> 3, sq & 7);
+        switch (sq) {
+            case 0:  return p == Piece.WHITE_ROOK && board.canWhiteCastleQueen();
+            case 7:  return p == Piece.WHITE_ROOK && board.canWhiteCastleKing();
+            case 56: return p == Piece.BLACK_ROOK && board.canBlackCastleQueen();
+            case 63: return p == Piece.BLACK_ROOK && board.canBlackCastleKing();
+            default: return false;
+        }
+    }
+
+    /** FEN completa do registro em {@code buf[off..off+32)}. */
+    static String fen(byte[] buf, int off) {
+        long occupied = getLong(buf, off);
+        char[] symbols = new char[64];
+        String castling = "", ep = "-";
+        int n = 0;
+        for (long bb = occupied; bb != 0; bb &= bb - 1, n++) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int code = (buf[off + 8 + (n >> 1)] >> ((n & 1) * 4)) & 0xF;
+            if (code == EN_PASSANT_PAWN) {
+                boolean white = sq >> 3 == 3;
+                symbols[sq] = white ? 'P' : 'p';
+                ep = "" + (char) ('a' + (sq & 7)) + (white ? '3' : '6');
+            } else if (code == CASTLING_ROOK) {
+                symbols[sq] = sq < 8 ? 'R' : 'r';
+                castling += sq == 7 ? "K" : sq == 0 ? "Q" : sq == 63 ? "k" : "q";
+            } else {
+                symbols[sq] = PIECES[code].getSymbol();
+            }
+        }
+        StringBuilder sb = new StringBuilder(90);
+        for (int r = 7; r >= 0; r--) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                char p = symbols[r * 8 + c];
+                if (p == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append(empty);
+                empty = 0;
+                sb.append(p);
+            }
+            if (empty > 0) sb.append(empty);
+            if (r > 0) sb.append('/');
+        }
+        // a ordem KQkq do FEN, independente da ordem dos bits
+        String rights = "";
+        for (char c : "KQkq".toCharArray()) if (castling.indexOf(c) >= 0) rights += c;
+        sb.append(buf[off + 27] != 0 ? " w " : " b ")
+          .append(rights.isEmpty() ? "-" : rights).append(' ').append(ep).append(' ')
+          .append(buf[off + 28] & 0xFF).append(' ')
+          .append(((buf[off + 29] & 0xFF) << 8) | (buf[off + 30] & 0xFF));
+        return sb.toString();
+    }
+
+    static int score(byte[] buf, int off) {
+        return (short) (((buf[off + 24] & 0xFF) << 8) | (buf[off + 25] & 0xFF));
+    }
+
+    /** Resultado da perspectiva das brancas: 0, 0.5 ou 1. */
+    static float result(byte[] buf, int off) {
+        return buf[off + RESULT_OFFSET] / 2f;
+    }
+
+    private static void putLong(byte[] buf, int off, long v) {
+        for (int i = 0; i < 8; i++) buf[off + i] = (byte) (v >>> (56 - 8 * i));
+    }
+
+    private static long getLong(byte[] buf, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) v = (v << 8) | (buf[off + i] & 0xFF);
+        return v;
+    }
+
+    private static boolean compressed(Path file) {
+        return file.toString().endsWith(".gz");
+    }
+
+    /**
+     * Grava blocos de registros de várias threads. Cada partida empacota os
+     * próprios registros e entrega o bloco inteiro de uma vez, então o
+     * bloqueio dura só a gravação (ou compressão) de um bloco por partida.
+     */
+    static final class Writer implements AutoCloseable {
+        private final OutputStream out;
+        private long records;
+
+        Writer(Path file) {
+            try {
+                OutputStream stream = Files.newOutputStream(file);
+                this.out = compressed(file)
+                        ? new GZIPOutputStream(stream, 1 << 16)
+                        : new BufferedOutputStream(stream, 1 << 16);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível criar " + file, e);
+            }
+        }
+
+        /** Grava os {@code count} primeiros registros de {@code block}. */
+        synchronized void write(byte[] block, int count) {
+            try {
+                out.write(block, 0, count * RECORD_BYTES);
+                records += count;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao gravar posições", e);
+            }
+        }
+
+        synchronized long records() {
+            return records;
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao fechar arquivo de posições", e);
+            }
+        }
+    }
+
+    /** Lê os registros em sequência: {@link #next()} e depois os acessores. */
+    static final class Reader implements AutoCloseable {
+        private final DataInputStream in;
+        private final byte[] record = new byte[RECORD_BYTES];
+
+        Reader(Path file) {
+            try {
+                InputStream stream = Files.newInputStream(file);
+                this.in = new DataInputStream(compressed(file)
+                        ? new GZIPInputStream(stream, 1 << 16)
+                        : new BufferedInputStream(stream, 1 << 16));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível abrir " + file, e);
+            }
+        }
+
+        /** Avança para o próximo registro; false no fim do arquivo. */
+        boolean next() {
+            try {
+                in.readFully(record);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao ler posições", e);
+            }
+        }
+
+        String fen()   { return TrainingData.fen(record, 0); }
+        int score()    { return TrainingData.score(record, 0); }
+        float result() { return TrainingData.result(record, 0); }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao fechar arquivo de posições", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package app;
+
+import Jogo.Board;
+import Jogo.Piece;
+import ai.BatchEvaluator;
+import ai.BetterSquares;
+import ai.EvalParams;
+import ai.PositionBatch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ajuste Texel dos valores de peça e das PST (meio-jogo e final) do
+ * {@link BetterSquares}. Lê posições rotuladas com o resultado da partida,
+ * guarda tudo num {@link PositionBatch}, acha a constante K da sigmoide
+ * que melhor liga o score atual aos resultados e então desce o gradiente
+ * do erro quadrático (Adam) sobre os 780 parâmetros. Cada época é uma
+ * passada pelas posições dividida em tarefas de fork-join; a avaliação é
+ * linear nos parâmetros, então o gradiente sai na mesma passada do erro.
+ * Só material + PST é ajustado; a estrutura de peões fica como está.
+ *
+ * Arquivo de entrada: uma posição por linha, FEN seguida do resultado
+ * ("1-0", "0-1", "1/2-1/2", ou um número de 0 a 1 entre colchetes ou
+ * aspas, como em "[0.5]", ou solto depois dos seis campos da FEN; também
+ * c9 "1-0";). Linhas sem resultado ou que não dão para ler são contadas e
+ * puladas. Também
+ * lê os registros binários do {@link DataGen} (".bin" ou ".bin.gz").
+ *
+ * Uso: java app.Tuner posicoes.txt [opções]
+ *   --out arquivo     parâmetros gravados (padrão eval.params)
+ *   --start arquivo   parte destes parâmetros em vez das tabelas do motor
+ *   --epochs N        passadas do gradiente (padrão 2000)
+ *   --rate X          passo do Adam, em centipeões (padrão 1.0)
+ *   --threads N       threads do fork-join (padrão: núcleos)
+ */
+public class Tuner {
+    private static final int VALUE_MG = 0, VALUE_EG = 6;
+    private static final int PST_MG = 12, PST_EG = PST_MG + 6 * 64;
+    private static final int PARAMS = PST_EG + 6 * 64;
+    private static final int[] PHASE = { 0, 4, 2, 1, 1, 0 };   // K, Q, R, B, N, P
+    private static final double LN10_400 = Math.log(10) / 400;
+    private static final int SPLIT = 8192;                     // posições por tarefa
+    private static final int REPORT_EVERY = 50;
+    private static final Piece[] PIECES = Piece.values();
+
+    private final PositionBatch positions;
+    private final float[] results;
+    private final ForkJoinPool pool;
+
+    Tuner(PositionBatch positions, float[] results, ForkJoinPool pool) {
+        this.positions = positions;
+        this.results = results;
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        String out = Main.EVAL_PARAMS_FILE, start = null;
+        int epochs = 2000;
+        double rate = 1.0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out"     -> out = args[++i];
+                case "--start"   -> start = args[++i];
+                case "--epochs"  -> epochs = Integer.parseInt(args[++i]);
+                case "--rate"    -> rate = Double.parseDouble(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> files.add(args[i]);
+            }
+        }
+        if (files.size() != 1) {
+            System.out.println("Uso: java app.Tuner posicoes.txt [opções]");
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        Tuner tuner = load(Path.of(files.get(0)), new ForkJoinPool(threads));
+        System.out.printf("%d posições carregadas (%d ms)%n",
+                tuner.positions.size(), (System.nanoTime() - t0) / 1_000_000);
+
+        EvalParams initial = start != null ? EvalParams.load(Path.of(start)) : BetterSquares.defaultParams();
+        double k = tuner.fitK(initial);
+        System.out.printf("K = %.4f, erro inicial %.6f%n", k, tuner.loss(initial, k));
+
+        EvalParams tuned = tuner.tune(initial, k, epochs, rate, Path.of(out));
+        System.out.printf("erro final %.6f; parâmetros em %s (%d s)%n",
+                tuner.loss(tuned, k), out, (System.nanoTime() - t0) / 1_000_000_000);
+    }
+
+    /**
+     * Lê as posições rotuladas; o lote é dimensionado pela contagem de linhas.
+     * Arquivos ".bin" e ".bin.gz" são registros do {@link TrainingData}.
+     */
+    static Tuner load(Path file, ForkJoinPool pool) throws IOException {
+        String name = file.toString();
+        if (name.endsWith(".bin") || name.endsWith(".bin.gz")) return loadPacked(file, pool);
+        int lines;
+        try (var s = Files.lines(file)) {
+            lines = (int) s.count();
+        }
+        PositionBatch batch = new PositionBatch(lines);
+        float[] results = new float[lines];
+        Board board = new Board();
+        int skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            for (String line; (line = in.readLine()) != null; ) {
+                float result = parseResult(line);
+                if (Float.isNaN(result)) {
+                    if (!line.isBlank()) skipped++;
+                    continue;
+                }
+                try {
+                    board.loadFromFEN(line);
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    continue;
+                }
+                results[batch.add(board)] = result;
+            }
+        }
+        if (skipped > 0) System.out.println(skipped + " linhas puladas");
+        float[] trimmed = new float[batch.size()];
+        System.arraycopy(results, 0, trimmed, 0, trimmed.length);
+        return new Tuner(batch, trimmed, pool);
+    }
+
+    /** Posições do {@link DataGen}; uma passada conta os registros e outra preenche o lote. */
+    private static Tuner loadPacked(Path file, ForkJoinPool pool) {
+        int count = 0;
+        try (TrainingData.Reader in = new TrainingData.Reader(file)) {
+            while (in.next()) count++;
+        }
+        PositionBatch batch = new PositionBatch(count);
+        float[] results = new float[count];
+        Board board = new Board();
+        try (TrainingData.Reader in = new TrainingData.Reader(file)) {
+            while (in.next()) {
+                board.loadFromFEN(in.fen());
+                results[batch.add(board)] = in.result();
+            }
+        }
+        return new Tuner(batch, results, pool);
+    }
+
+    /** Resultado do ponto de vista das brancas (1, 0.5 ou 0), ou NaN. */
+    static float parseResult(String line) {
+        if (line.contains("1/2-1/2")) return 0.5f;
+        if (line.contains("1-0")) return 1f;
+        if (line.contains("0-1")) return 0f;
+        // número entre colchetes ou aspas depois da posição, ou solto como 7º
+        // campo de uma FEN completa; o último número de uma FEN sem resultado
+        // é o número do lance, não um rótulo
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length < 5) return Float.NaN;
+        String last = parts[parts.length - 1];
+        if (last.endsWith(";")) last = last.substring(0, last.length() - 1);
+        String value;
+        if (last.length() > 2 && (last.startsWith("[") && last.endsWith("]")
+                || last.startsWith("\"") && last.endsWith("\""))) {
+            value = last.substring(1, last.length() - 1);
+        } else if (parts.length == 7 && isCounter(parts[4]) && isCounter(parts[5])) {
+            value = last;
+        } else {
+            return Float.NaN;
+        }
+        try {
+            float r = Float.parseFloat(value);
+            return r >= 0 && r <= 1 ? r : Float.NaN;
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    private static boolean isCounter(String field) {
+        return !field.isEmpty() && field.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    /** Erro quadrático médio dos parâmetros inteiros, avaliados em lote. */
+    double loss(EvalParams params, double k) {
+        int[] scores = new BatchEvaluator(params.toPstSet(), pool).evaluate(positions);
+        return pool.invoke(new LossTask(scores, k, 0, scores.length)) / scores.length;
+    }
+
+    /** K que minimiza o erro com os parâmetros dados (busca pela razão áurea). */
+    double fitK(EvalParams params) {
+        int[] scores = new BatchEvaluator(params.toPstSet(), pool).evaluate(positions);
+        double phi = (Math.sqrt(5) - 1) / 2;
+        double lo = 0.01, hi = 5.0;
+        double a = hi - phi * (hi - lo), b = lo + phi * (hi - lo);
+        double fa = pool.invoke(new LossTask(scores, a, 0, scores.length));
+        double fb = pool.invoke(new LossTask(scores, b, 0, scores.length));
+        for (int i = 0; i < 60; i++) {
+            if (fa < fb) {
+                hi = b; b = a; fb = fa;
+                a = hi - phi * (hi - lo);
+                fa = pool.invoke(new LossTask(scores, a, 0, scores.length));
+            } else {
+                lo = a; a = b; fa = fb;
+                b = lo + phi * (hi - lo);
+                fb = pool.invoke(new LossTask(scores, b, 0, scores.length));
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    /**
+     * Adam sobre os parâmetros em ponto flutuante. A cada
+     * {@value #REPORT_EVERY} épocas mostra o erro e grava os parâmetros
+     * arredondados, para uma execução longa poder ser interrompida.
+     */
+    EvalParams tune(EvalParams initial, double k, int epochs, double rate, Path out) {
+        double[] theta = toVector(initial);
+        double[] m = new double[PARAMS], v = new double[PARAMS];
+        double beta1 = 0.9, beta2 = 0.999, eps = 1e-8;
+        long t0 = System.nanoTime();
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double[] grad = pool.invoke(new GradientTask(theta, k, 0, positions.size()));
+            double loss = grad[PARAMS] / positions.size();
+            double c1 = 1 - Math.pow(beta1, epoch), c2 = 1 - Math.pow(beta2, epoch);
+            for (int j = 0; j < PARAMS; j++) {
+                double g = grad[j] / positions.size();
+                m[j] = beta1 * m[j] + (1 - beta1) * g;
+                v[j] = beta2 * v[j] + (1 - beta2) * g * g;
+                theta[j] -= rate * (m[j] / c1) / (Math.sqrt(v[j] / c2) + eps);
+            }
+            if (epoch % REPORT_EVERY == 0 || epoch == epochs) {
+                System.out.printf("época %d: erro %.6f (%d s)%n",
+                        epoch, loss, (System.nanoTime() - t0) / 1_000_000_000);
+                toParams(theta).save(out, String.format("app.Tuner: %d posições, K=%.4f, época %d, erro %.6f",
+                        positions.size(), k, epoch, loss));
+            }
+        }
+        return toParams(theta);
+    }
+
+    private static double[] toVector(EvalParams p) {
+        double[] theta = new double[PARAMS];
+        for (int t = 0; t < 6; t++) {
+            theta[VALUE_MG + t] = p.valueMg(t);
+            theta[VALUE_EG + t] = p.valueEg(t);
+            for (int sq = 0; sq < 64; sq++) {
+                theta[PST_MG + t * 64 + sq] = p.pstMg(t, sq >> 3, sq & 7);
+                theta[PST_EG + t * 64 + sq] = p.pstEg(t, sq >> 3, sq & 7);
+            }
+        }
+        return theta;
+    }
+
+    private static EvalParams toParams(double[] theta) {
+        int[] valueMg = new int[6], valueEg = new int[6];
+        int[][][] pstMg = new int[6][8][8], pstEg = new int[6][8][8];
+        for (int t = 0; t < 6; t++) {
+            valueMg[t] = (int) Math.round(theta[VALUE_MG + t]);
+            valueEg[t] = (int) Math.round(theta[VALUE_EG + t]);
+            for (int sq = 0; sq < 64; sq++) {
+                pstMg[t][sq >> 3][sq & 7] = (int) Math.round(theta[PST_MG + t * 64 + sq]);
+                pstEg[t][sq >> 3][sq & 7] = (int) Math.round(theta[PST_EG + t * 64 + sq]);
+            }
+        }
+        return new EvalParams(valueMg, valueEg, pstMg, pstEg);
+    }
+
+    private static double sigmoid(double score, double k) {
+        return 1 / (1 + Math.exp(-k * LN10_400 * score));
+    }
+
+    /** Soma dos erros quadráticos de um trecho dos scores. */
+    @SuppressWarnings("serial")   // nunca serializada
+    private final class LossTask extends RecursiveTask<Double> {
+        private final int[] scores;
+        private final double k;
+        private final int from, to;
+
+        LossTask(int[] scores, double k, int from, int to) {
+            this.scores = scores;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= SPLIT) {
+                double sum = 0;
+                for (int i = from; i < to; i++) {
+                    double e = results[i] - sigmoid(scores[i], k);
+                    sum += e * e;
+                }
+                return sum;
+            }
+            int mid = (from + to) >>> 1;
+            LossTask left = new LossTask(scores, k, from, mid);
+            left.fork();
+            return new LossTask(scores, k, mid, to).compute() + left.join();
+        }
+    }
+
+    /**
+     * Gradiente da soma dos erros quadráticos num trecho das posições; a
+     * última posição do array devolvido é a própria soma dos erros.
+     */
+    @SuppressWarnings("serial")   // nunca serializada
+    private final class GradientTask extends RecursiveTask<double[]> {
+        private final double[] theta;
+        private final double k;
+        private final int from, to;
+
+        GradientTask(double[] theta, double k, int from, int to) {
+            this.theta = theta;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > SPLIT) {
+                int mid = (from + to) >>> 1;
+                GradientTask left = new GradientTask(theta, k, from, mid);
+                left.fork();
+                double[] grad = new GradientTask(theta, k, mid, to).compute();
+                double[] other = left.join();
+                for (int j = 0; j <= PARAMS; j++) grad[j] += other[j];
+                return grad;
+            }
+            double[] grad = new double[PARAMS + 1];
+            for (int i = from; i < to; i++) {
+                double mg = 0, eg = 0;
+                int phase = 0;
+                for (Piece p : PIECES) {
+                    long bb = positions.getBitboard(p, i);
+                    int type = p.ordinal() % 6;
+                    double sign = p.isWhite() ? 1 : -1;
+                    phase += PHASE[type] * Long.bitCount(bb);
+                    for (; bb != 0; bb &= bb - 1) {
+                        int sq = tableSquare(p, Long.numberOfTrailingZeros(bb));
+                        mg += sign * (theta[VALUE_MG + type] + theta[PST_MG + type * 64 + sq]);
+                        eg += sign * (theta[VALUE_EG + type] + theta[PST_EG + type * 64 + sq]);
+                    }
+                }
+                phase = Math.min(phase, Board.MAX_PHASE);
+                double wMg = (double) phase / Board.MAX_PHASE, wEg = 1 - wMg;
+                double s = sigmoid(mg * wMg + eg * wEg, k);
+                double err = results[i] - s;
+                grad[PARAMS] += err * err;
+
+                // d(erro²)/d(score); cada parâmetro entra no score com peso ±wMg ou ±wEg
+                double d = -2 * err * s * (1 - s) * k * LN10_400;
+                for (Piece p : PIECES) {
+                    long bb = positions.getBitboard(p, i);
+                    int type = p.ordinal() % 6;
+                    double dMg = p.isWhite() ? d * wMg : -d * wMg;
+                    double dEg = p.isWhite() ? d * wEg : -d * wEg;
+                    for (; bb != 0; bb &= bb - 1) {
+                        int sq = tableSquare(p, Long.numberOfTrailingZeros(bb));
+                        grad[VALUE_MG + type] += dMg;
+                        grad[VALUE_EG + type] += dEg;
+                        grad[PST_MG + type * 64 + sq] += dMg;
+                        grad[PST_EG + type * 64 + sq] += dEg;
+                    }
+                }
+            }
+            return grad;
+        }
+    }
+
+    /** Casa do tabuleiro → casa da tabela (espelhada na vertical para as pretas). */
+    private static int tableSquare(Piece p, int sq) {
+        return p.isWhite() ? sq : sq ^ 56;
+    }
+}
@@ -7,7 +7,7 @@ import Jogo.Piece;
 
 import java.util.List;
 
-public class AlphaBeta {
+public class AlphaBeta implements Engine {
     private static final int PAWN   = 100;
     private static final int KNIGHT = 320;
     private static final int BISHOP = 330;
@@ -21,6 +21,25 @@ public class AlphaBeta {
         this.gen = new MoveGenerator();
     }
 
+    @Override
+    public String getName() {
+        return "AlphaBeta";
+    }
+
+    /** Só informa o lance; aceita profundidade fixa ou tempo, sem limite de nós. */
+    @Override
+    public EngineResult search(Board board, SearchRequest request) {
+        SearchLimits limits = request.getLimits();
+        boolean white = board.isWhiteToMove();
+        if (limits.getDepth() > 0) {
+            return EngineResult.ofMove(findBestMoveAlphaBeta(board, white, limits.getDepth()));
+        }
+        if (limits.getTimeMs() > 0) {
+            return EngineResult.ofMove(findBestMoveAlphaBetaTimed(board, white, limits.getTimeMs()));
+        }
+        throw new IllegalArgumentException(getName() + " precisa de limite de profundidade ou de tempo");
+    }
+
 
 
     /**
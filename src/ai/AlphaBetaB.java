@@ -7,7 +7,7 @@ import Jogo.Piece;
 
 import java.util.List;
 
-public class AlphaBetaB {
+public class AlphaBetaB implements Engine {
     private static final int PAWN   = 100;
     private static final int KNIGHT = 320;
     private static final int BISHOP = 330;
@@ -18,11 +18,33 @@ public class AlphaBetaB {
     private static final int MATE_SCORE = 100_000_000;
 
     private final MoveGenerator gen;
+    private boolean quiet;
 
     public AlphaBetaB() {
         this.gen = new MoveGenerator();
     }
 
+    @Override
+    public String getName() {
+        return "AlphaBetaB";
+    }
+
+    /** Cala as mensagens de busca (partidas em lote). */
+    @Override
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /** Só informa o lance; só há busca por tempo neste motor. */
+    @Override
+    public EngineResult search(Board board, SearchRequest request) {
+        long timeMs = request.getLimits().getTimeMs();
+        if (timeMs == 0) {
+            throw new IllegalArgumentException(getName() + " só aceita limite de tempo");
+        }
+        return EngineResult.ofMove(findBestMoveAlphaBetaTimed(board, board.isWhiteToMove(), timeMs));
+    }
+
 
 
     /**
@@ -45,7 +67,7 @@ public class AlphaBetaB {
             // iterative deepening
             for (int depth = 1; ; depth++) {
                 if (System.nanoTime() - start > limit) {
-                    System.out.println("Tempo esgotou antes de depth=" + depth + " → parada.");
+                    if (!quiet) System.out.println("Tempo esgotou antes de depth=" + depth + " → parada.");
                     break;
                 }
                 int alpha = engineWhite ? Integer.MIN_VALUE : Integer.MAX_VALUE;
@@ -78,8 +100,7 @@ public class AlphaBetaB {
                     } else {
                         if (val < alpha) {
                             alpha = val;
-                            System.out.print(m);
-                            System.out.println(" " + val);
+                            if (!quiet) System.out.println(m + " " + val);
                             currentBest = m;
                         }
                         if (val <= -MATE_SCORE) {
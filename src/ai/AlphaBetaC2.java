@@ -3,6 +3,7 @@ package ai;
 import Jogo.Board;
 import Jogo.Move;
 import Jogo.Piece;
+import Jogo.PstSet;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -11,19 +12,49 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class AlphaBetaC2 {
+public class AlphaBetaC2 implements Engine {
     private static final int PAWN   = 100;
     private static final int KNIGHT = 320;
     private static final int BISHOP = 330;
     private static final int ROOK   = 500;
     private static final int QUEEN  = 900;
     private static final int KING   = 20000;
-    private static final int MATE_SCORE = 100_000_000;
+    private static final int MATE_SCORE = EngineResult.MATE_SCORE;
+    private static final int BITBASE_WIN = EngineResult.BITBASE_WIN;
+
+    private static final int MIN_DEPTH = 1;            // profundidades sempre completadas
+    private static final int MAX_DEPTH = 64;
+    private static final int EASY_MOVE_MIN_DEPTH = 4;
+    private static final int EASY_MOVE_STABLE = 2;     // iterações seguidas com o mesmo melhor lance
+    private static final int EASY_MOVE_MARGIN = 200;
+
+    private static final int TT_MEGABYTES = 16;
+    private static final PstSet MATERIAL = PstSet.material(new int[]{ KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN });
 
     private final MoveGenerator gen;
+    private TranspositionTable tt;
+    private int hashMegabytes = TT_MEGABYTES;
+    private EndgameBitbases bitbases;
+    private final Mobility mobility = new Mobility();
+    private boolean useMobility;
+    private boolean quiet;
+    private long nodes;
+    private boolean armed;                   // prazo vale a partir de MIN_DEPTH
+    private volatile long budgetDeadline;    // Long.MAX_VALUE = sem limite (ponder)
+    private volatile boolean timed;          // só buscas com tempo leem o relógio
+    private long nodeLimit = Long.MAX_VALUE;
+    private int depthLimit = MAX_DEPTH;
+    private volatile boolean stopped;
+    private volatile boolean pondering;
+    private Move ponderMove;
+    private List<PvLine> lines = new ArrayList<>();
+
+    private Thread ponderThread;
+    private volatile Move ponderResult;
 
     public AlphaBetaC2() {
         this.gen = new MoveGenerator();
+        this.tt = new TranspositionTable(TT_MEGABYTES);
     }
 
     /**
@@ -41,82 +72,347 @@ public class AlphaBetaC2 {
 
     /**
      * Encontra o melhor movimento com logs e PV.
+     * Aprofundamento iterativo de 1 em 1 ply: a raiz é reordenada a cada
+     * iteração (PV primeiro, depois score e nós da subárvore) e a busca
+     * termina cedo quando um lance domina claramente os outros.
      */
     public Move findBestMoveAlphaBetaTimed(Board board, boolean engineWhite, long timeLimitMs) {
+        return findBestMove(board, engineWhite, SearchLimits.time(timeLimitMs));
+    }
+
+    /** Busca com limite de nós, profundidade e/ou tempo. */
+    public Move findBestMove(Board board, boolean engineWhite, SearchLimits limits) {
+        stopPondering();
+        applyLimits(limits);
+        return search(board, engineWhite, 1);
+    }
+
+    /**
+     * Análise MultiPV: as {@code multiPv} melhores linhas da raiz, pesquisadas
+     * numa só busca com a tabela de transposição compartilhada. Cada lance da
+     * raiz só precisa superar a K-ésima melhor linha para entrar na lista.
+     *
+     * @return linhas da última iteração completa, da melhor para a pior
+     */
+    public List<PvLine> analyze(Board board, boolean engineWhite, long timeLimitMs, int multiPv) {
+        return analyze(board, engineWhite, SearchLimits.time(timeLimitMs), multiPv);
+    }
+
+    public List<PvLine> analyze(Board board, boolean engineWhite, SearchLimits limits, int multiPv) {
+        if (multiPv < 1) throw new IllegalArgumentException("multiPv deve ser >= 1");
+        stopPondering();
+        applyLimits(limits);
+        search(board, engineWhite, multiPv);
+        return lines;
+    }
+
+    @Override
+    public String getName() {
+        return "AlphaBetaC2";
+    }
+
+    @Override
+    public EngineResult search(Board board, SearchRequest request) {
+        stopPondering();   // a busca em segundo plano usa a mesma tabela
+        if (request.getHashMegabytes() != hashMegabytes) {
+            hashMegabytes = request.getHashMegabytes();
+            tt = new TranspositionTable(hashMegabytes);
+        }
+        applyLimits(request.getLimits());
+        return result(search(board, board.isWhiteToMove(), 1));
+    }
+
+    /** Resultado da última busca, com score e profundidade da melhor linha. */
+    private EngineResult result(Move best) {
+        if (lines.isEmpty()) return new EngineResult(best, 0, 0, nodes, best == null ? List.of() : List.of(best));
+        PvLine line = lines.get(0);
+        return new EngineResult(best, line.getScore(), line.getDepth(), nodes, line.getPv());
+    }
+
+    @Override
+    public void newGame() {
+        tt.clear();
+    }
+
+    /** Bitbases consultados na busca; null desliga a consulta. */
+    @Override
+    public void setBitbases(EndgameBitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /** Cala as mensagens de busca (partidas em lote). */
+    @Override
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /** Soma mobilidade e espaço ({@link Mobility}) ao material. */
+    @Override
+    public void setMobility(boolean enabled) {
+        useMobility = enabled;
+    }
+
+    /** Nós visitados pela última busca (assinatura de buscas determinísticas). */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private void applyLimits(SearchLimits limits) {
+        timed = limits.getTimeMs() > 0;
+        budgetDeadline = timed ? System.nanoTime() + limits.getTimeMs() * 1_000_000L : Long.MAX_VALUE;
+        nodeLimit  = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        depthLimit = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_DEPTH) : MAX_DEPTH;
+    }
+
+    /**
+     * Começa a pensar em segundo plano na posição esperada depois do lance
+     * do adversário, sem limite de tempo, enchendo a tabela de transposição.
+     */
+    public void startPondering(Board board, boolean engineWhite) {
+        stopPondering();
+        Board position = new Board(board);
+        stopped = false;
+        pondering = true;
+        applyLimits(new SearchLimits(0, 0, 0));
+        ponderResult = null;
+        ponderThread = new Thread(() -> ponderResult = search(position, engineWhite, 1), "ponder");
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    /**
+     * O adversário jogou o lance esperado: a busca em segundo plano continua,
+     * agora com o tempo normal contado a partir deste instante.
+     *
+     * @return o resultado da busca, como em {@link #search(Board, SearchRequest)}, ou null sem ponder
+     */
+    public EngineResult ponderHit(long timeLimitMs) {
+        if (ponderThread == null) return null;
+        budgetDeadline = System.nanoTime() + timeLimitMs * 1_000_000L;
+        timed = true;
+        pondering = false;
+        return result(joinPonderThread());
+    }
+
+    /** Cancela o ponder (lance inesperado); a tabela de transposição continua cheia. */
+    public void stopPondering() {
+        if (ponderThread == null) return;
+        stopped = true;
+        joinPonderThread();
+        stopped = false;
+        pondering = false;
+    }
+
+    /** Resposta esperada do adversário segundo a PV da última busca, ou null. */
+    public Move getPonderMove() {
+        return ponderMove;
+    }
+
+    private Move joinPonderThread() {
+        try {
+            ponderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderThread = null;
+        return ponderResult;
+    }
+
+    private Move search(Board board, boolean engineWhite, int multiPv) {
+        board = new Board(board);
+        board.setPst(MATERIAL);   // daqui em diante o Board mantém o material
+        ponderMove = null;
+        lines = new ArrayList<>();
+        nodes = 0;
         List<Move> moves = gen.generateLegalMoves(board, engineWhite);
         if (moves.isEmpty()) return null;
+        if (moves.size() == 1 && multiPv == 1) {
+            log("Lance único → %s%n", moves.get(0));
+            lines.add(new PvLine(moves.get(0), 0, 0, moves));
+            return moves.get(0);
+        }
 
-        long start = System.nanoTime();
-        long limit = timeLimitMs * 1_000_000L;
+        List<RootMove> rootMoves = RootMove.of(moves);
         Move bestMove = moves.get(0);
         List<Move> bestPV = new ArrayList<>();
+        int stableIterations = 0;
+        armed = false;
 
-        try {
-            for (int depth = 1; ; depth+=2) {
-                if (System.nanoTime() - start > limit) {
-                    System.out.println("Tempo esgotou antes de depth=" + depth + " → parada.");
+        for (int depth = 1; depth <= depthLimit && !stopped; depth++) {
+            if (depth > MIN_DEPTH) {
+                if (nodes >= nodeLimit || (timed && System.nanoTime() > budgetDeadline)) {
+                    log("Limite atingido antes de depth=%d → parada.%n", depth);
                     break;
                 }
+                armed = true;
+            }
 
-                int alpha = engineWhite ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-                Move currentBest = null;
-                List<Move> currentPV = new ArrayList<>();
+            // top-K desta iteração, do melhor para o pior; o K-ésimo é o limite da janela
+            List<PvLine> current = new ArrayList<>();
+            boolean completed = false;
 
-                for (Move m : moves) {
+            try {
+                for (RootMove rm : rootMoves) {
+                    int bound = current.size() < multiPv
+                            ? (engineWhite ? Integer.MIN_VALUE : Integer.MAX_VALUE)
+                            : current.get(multiPv - 1).getScore();
+                    long before = nodes;
                     Board next = new Board(board);
-                    next.makeMove(m);
+                    next.makeMove(rm.move);
 
                     SearchResult res = next.isInCheck(!engineWhite)
                             ? forcedCheckSequenceWithPV(next, engineWhite, 3)
                             : alphabetaTimedWithPV(next, depth - 1, !engineWhite,
-                            Integer.MIN_VALUE, Integer.MAX_VALUE);
-
-                    System.out.printf("Depth %d | Move %s → Eval %d | PV: %s%n",
-                            depth, m, res.score, res.pv);
-
-                    if (engineWhite ? (res.score > alpha) : (res.score < alpha)) {
-                        alpha = res.score;
-                        currentBest = m;
-                        currentPV.clear();
-                        currentPV.add(m);
-                        currentPV.addAll(res.pv);
+                            engineWhite ? bound : Integer.MIN_VALUE,
+                            engineWhite ? Integer.MAX_VALUE : bound);
+                    rm.score = res.score;
+                    rm.nodes = nodes - before;
+
+                    boolean improved = current.size() < multiPv
+                            || (engineWhite ? (res.score > bound) : (res.score < bound));
+                    log("Depth %d | Move %s → Eval %s | PV: %s%n",
+                            depth, rm.move, improved ? res.score : (engineWhite ? "<=" : ">=") + res.score, res.pv);
+
+                    if (improved) {
+                        List<Move> pv = new ArrayList<>();
+                        pv.add(rm.move);
+                        pv.addAll(res.pv);
+                        insertLine(current, new PvLine(rm.move, res.score, depth, pv), engineWhite, multiPv);
                     }
-                    if ((engineWhite && res.score >= MATE_SCORE) ||
-                            (!engineWhite && res.score <= -MATE_SCORE)) {
+                    if (multiPv == 1 && ((engineWhite && res.score >= MATE_SCORE) ||
+                            (!engineWhite && res.score <= -MATE_SCORE))) {
                         break;
                     }
                 }
+                completed = true;
+            } catch (SearchTimeoutException e) {
+                // iteração interrompida: o lance da PV é pesquisado primeiro,
+                // então qualquer melhor parcial já o superou nesta profundidade
+            }
 
-                if (currentBest != null) {
-                    bestMove = currentBest;
-                    bestPV   = new ArrayList<>(currentPV);
-                }
+            if (!current.isEmpty()) {
+                Move currentBest = current.get(0).getMove();
+                stableIterations = currentBest.equals(bestMove) ? stableIterations + 1 : 0;
+                bestMove = currentBest;
+                bestPV   = new ArrayList<>(current.get(0).getPv());
+            }
+            if (!completed) {
+                log("Limite atingido durante depth=%d → parada.%n", depth);
+                break;
+            }
+            lines = current;
 
-                System.out.printf("→ Depth %d: Best %s | Score %d | PV: %s%n",
-                        depth, bestMove, alpha, bestPV);
+            int alpha = current.get(0).getScore();
+            log("→ Depth %d: Best %s | Score %d | PV: %s%n",
+                    depth, bestMove, alpha, bestPV);
+            for (int i = 1; i < current.size(); i++) {
+                log("  Linha %d: Score %d | PV: %s%n", i + 1, current.get(i).getScore(), current.get(i).getPv());
+            }
 
-                if ((engineWhite && alpha >= MATE_SCORE) ||
-                        (!engineWhite && alpha <= -MATE_SCORE)) {
-                    break;
-                }
+            if (multiPv == 1 && ((engineWhite && alpha >= MATE_SCORE) ||
+                    (!engineWhite && alpha <= -MATE_SCORE))) {
+                break;
+            }
+
+            RootMove.sort(rootMoves, bestMove, engineWhite);
+            if (multiPv == 1 && depth >= EASY_MOVE_MIN_DEPTH && stableIterations >= EASY_MOVE_STABLE
+                    && (budgetDeadline != Long.MAX_VALUE || nodeLimit != Long.MAX_VALUE)
+                    && isEasyMove(board, rootMoves, engineWhite, depth, alpha)) {
+                log("Lance fácil em depth=%d → %s%n", depth, bestMove);
+                break;
             }
-        } catch (SearchTimeoutException e) {
-            // timeout
         }
+
+        ponderMove = bestPV.size() > 1 ? bestPV.get(1) : expectedReply(board, bestMove);
         return bestMove;
     }
 
+    /** Insere a linha mantendo a lista ordenada do melhor para o pior e com no máximo K linhas. */
+    private static void insertLine(List<PvLine> lines, PvLine line, boolean engineWhite, int multiPv) {
+        int i = 0;
+        while (i < lines.size() && (engineWhite
+                ? lines.get(i).getScore() >= line.getScore()
+                : lines.get(i).getScore() <= line.getScore())) {
+            i++;
+        }
+        lines.add(i, line);
+        if (lines.size() > multiPv) lines.remove(lines.size() - 1);
+    }
+
+    /** Lance guardado na tabela de transposição para a posição depois de {@code move}. */
+    private Move expectedReply(Board board, Move move) {
+        Board next = new Board(board);
+        next.makeMove(move);
+        return TranspositionTable.moveOf(tt.probe(next.getHash()));
+    }
+
+    /** Logs da busca ficam mudos enquanto o motor pensa no tempo do adversário. */
+    private void log(String format, Object... args) {
+        if (!pondering && !quiet) System.out.printf(format, args);
+    }
+
+    /**
+     * Lance fácil: nenhum outro lance da raiz chega a EASY_MOVE_MARGIN do
+     * melhor numa busca reduzida de janela nula.
+     */
+    private boolean isEasyMove(Board board, List<RootMove> rootMoves, boolean engineWhite,
+                               int depth, int bestScore) {
+        if (Math.abs(bestScore) >= MATE_SCORE) return false;
+        int bound = engineWhite ? bestScore - EASY_MOVE_MARGIN : bestScore + EASY_MOVE_MARGIN;
+        int reduced = Math.max(0, depth - 3);
+        try {
+            for (int i = 1; i < rootMoves.size(); i++) {
+                Board next = new Board(board);
+                next.makeMove(rootMoves.get(i).move);
+                int score = engineWhite
+                        ? alphabetaTimedWithPV(next, reduced, false, bound, bound + 1).score
+                        : alphabetaTimedWithPV(next, reduced, true, bound - 1, bound).score;
+                if (engineWhite ? score > bound : score < bound) return false;
+            }
+        } catch (SearchTimeoutException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /** Conta o nó e interrompe a busca quando o prazo da iteração acabou. */
+    private void countNode() {
+        nodes++;
+        if (stopped || (armed && (nodes >= nodeLimit || (timed && System.nanoTime() > budgetDeadline)))) {
+            throw new SearchTimeoutException();
+        }
+    }
+
     /**
      * Alpha-beta com PV.
      */
     private SearchResult alphabetaTimedWithPV(Board board, int depth,
                                               boolean maxPlayer, int alpha, int beta) {
+        countNode();
         if (depth == 0 || board.isGameOver()) {
             int v = board.isGameOver()
                     ? scoreTerminal(board, depth)
                     : quiescence(board, alpha, beta, maxPlayer);
             return new SearchResult(v, new ArrayList<>());
         }
+        // empate provado corta a subárvore; vitórias seguem buscando o caminho
+        if (probeBitbases(board) == EndgameBitbases.DRAW) {
+            return new SearchResult(0, new ArrayList<>());
+        }
+
+        long ttEntry = tt.probe(board.getHash());
+        Move ttMove = TranspositionTable.moveOf(ttEntry);
+        if (ttEntry != 0 && TranspositionTable.depthOf(ttEntry) >= depth) {
+            int ttScore = TranspositionTable.scoreOf(ttEntry);
+            int flag = TranspositionTable.flagOf(ttEntry);
+            if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER && ttScore >= beta)
+                    || (flag == TranspositionTable.UPPER && ttScore <= alpha)) {
+                List<Move> pv = new ArrayList<>();
+                if (ttMove != null) pv.add(ttMove);
+                return new SearchResult(ttScore, pv);
+            }
+        }
 
         List<Move> moves = gen.generateLegalMoves(board, maxPlayer);
         if (moves.isEmpty()) {
@@ -124,6 +420,8 @@ public class AlphaBetaC2 {
         }
 
         orderMoves(board, moves, maxPlayer);
+        if (ttMove != null && moves.remove(ttMove)) moves.add(0, ttMove);
+        int alphaOrig = alpha, betaOrig = beta;
         SearchResult best = new SearchResult(
                 maxPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE,
                 new ArrayList<>());
@@ -148,6 +446,14 @@ public class AlphaBetaC2 {
                 if (beta <= alpha || best.score <= -MATE_SCORE) break;
             }
         }
+
+        if (Math.abs(best.score) < MATE_SCORE) {
+            int flag = best.score <= alphaOrig ? TranspositionTable.UPPER
+                    : best.score >= betaOrig ? TranspositionTable.LOWER
+                    : TranspositionTable.EXACT;
+            tt.store(board.getHash(), depth, best.score, flag,
+                    best.pv.isEmpty() ? null : best.pv.get(0));
+        }
         return best;
     }
 
@@ -155,6 +461,7 @@ public class AlphaBetaC2 {
      * Forced check sequence com PV.
      */
     private SearchResult forcedCheckSequenceWithPV(Board board, boolean engineWhite, int remChecks) {
+        countNode();
         if (remChecks == 0 || !board.isInCheck(!engineWhite) || board.isGameOver()) {
             int v = board.isGameOver() ? scoreTerminal(board, 0) : evaluate(board);
             return new SearchResult(v, new ArrayList<>());
@@ -173,6 +480,7 @@ public class AlphaBetaC2 {
 
             if (replies.isEmpty()) {
                 SearchResult sr = new SearchResult(scoreTerminal(bOpp, 0), new ArrayList<>());
+                sr.pv.add(opp);
                 if (sr.score < worst.score) worst = sr;
                 continue;
             }
@@ -194,6 +502,7 @@ public class AlphaBetaC2 {
 
             if (bestReply.score < worst.score) {
                 worst = bestReply;
+                worst.pv.add(0, opp);
             }
         }
         return worst;
@@ -239,9 +548,12 @@ public class AlphaBetaC2 {
      * Quiescence search, detecta game over primeiro.
      */
     private int quiescence(Board board, int alpha, int beta, boolean maxPlayer) {
+        countNode();
         if (board.isGameOver()) {
             return scoreTerminal(board, 0);
         }
+        int known = probeBitbases(board);
+        if (known != EndgameBitbases.UNKNOWN) return bitbaseScore(board, known);
         int standPat = evaluate(board);
         if (maxPlayer) {
             if (standPat >= beta) return beta;
@@ -331,6 +643,25 @@ public class AlphaBetaC2 {
     }
 
 
+    private int probeBitbases(Board board) {
+        if (bitbases == null || board.getPieceCount() > EndgameBitbases.MAX_PIECES) {
+            return EndgameBitbases.UNKNOWN;
+        }
+        return bitbases.probe(board);
+    }
+
+    /** Score de folha para um resultado provado; o mop-up guia o lado forte ao mate. */
+    private int bitbaseScore(Board board, int result) {
+        switch (result) {
+            case EndgameBitbases.WHITE_WINS:
+                return BITBASE_WIN + evaluate(board) + EndgameBitbases.mopUp(board);
+            case EndgameBitbases.BLACK_WINS:
+                return -BITBASE_WIN + evaluate(board) - EndgameBitbases.mopUp(board);
+            default:
+                return 0;
+        }
+    }
+
     /** Converte resultado de jogo em score. */
     private int scoreTerminal(Board b, int depth) {
         switch (b.getGameResult()) {
@@ -345,28 +676,17 @@ public class AlphaBetaC2 {
         }
     }
 
-    /** Avaliação material simples. */
+    /** Avaliação material simples, mantida incrementalmente pelo Board. */
     private int evaluate(Board board) {
-        int score = 0;
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p == null) continue;
-                switch (p) {
-                    case WHITE_PAWN   -> score += PAWN;
-                    case WHITE_KNIGHT -> score += KNIGHT;
-                    case WHITE_BISHOP -> score += BISHOP;
-                    case WHITE_ROOK   -> score += ROOK;
-                    case WHITE_QUEEN  -> score += QUEEN;
-                    case WHITE_KING   -> score += KING;
-                    case BLACK_PAWN   -> score -= PAWN;
-                    case BLACK_KNIGHT -> score -= KNIGHT;
-                    case BLACK_BISHOP -> score -= BISHOP;
-                    case BLACK_ROOK   -> score -= ROOK;
-                    case BLACK_QUEEN  -> score -= QUEEN;
-                    case BLACK_KING   -> score -= KING;
-                }
-            }
+        if (board.getPst() != MATERIAL) {
+            board = new Board(board);
+            board.setPst(MATERIAL);
+        }
+        int score = board.getMaterial(true) - board.getMaterial(false);
+        if (useMobility) {
+            mobility.evaluate(board);
+            int phase = board.getPhase();
+            score += (mobility.mg() * phase + mobility.eg() * (Board.MAX_PHASE - phase)) / Board.MAX_PHASE;
         }
         return score;
     }
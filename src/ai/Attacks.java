@@ -0,0 +1,74 @@
+package ai;
+
+/**
+ * Tabelas de ataque pré-calculadas em bitboards (casa = linha * 8 + coluna,
+ * bit 0 = a1). Cavalo, rei e peões são consultas diretas; peças deslizantes
+ * usam raios pré-calculados cortados no primeiro bloqueador.
+ */
+final class Attacks {
+    static final long[] KNIGHT = new long[64];
+    static final long[] KING = new long[64];
+    static final long[] WHITE_PAWN = new long[64];
+    static final long[] BLACK_PAWN = new long[64];
+
+    // N, E, NE, NW (índice crescente) e S, W, SE, SW (decrescente)
+    private static final int[][] DIRS = {
+            {1, 0}, {0, 1}, {1, 1}, {1, -1},
+            {-1, 0}, {0, -1}, {-1, 1}, {-1, -1}
+    };
+    private static final long[][] RAYS = new long[8][64];
+
+    static {
+        int[][] knight = {{2,1},{2,-1},{-2,1},{-2,-1},{1,2},{1,-2},{-1,2},{-1,-2}};
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >> 3, c = sq & 7;
+            for (int[] d : knight) KNIGHT[sq] |= bit(r + d[0], c + d[1]);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr != 0 || dc != 0) KING[sq] |= bit(r + dr, c + dc);
+                }
+            }
+            WHITE_PAWN[sq] = bit(r + 1, c - 1) | bit(r + 1, c + 1);
+            BLACK_PAWN[sq] = bit(r - 1, c - 1) | bit(r - 1, c + 1);
+            for (int d = 0; d < 8; d++) {
+                int r2 = r + DIRS[d][0], c2 = c + DIRS[d][1];
+                while (r2 >= 0 && r2 < 8 && c2 >= 0 && c2 < 8) {
+                    RAYS[d][sq] |= 1L << (r2 * 8 + c2);
+                    r2 += DIRS[d][0];
+                    c2 += DIRS[d][1];
+                }
+            }
+        }
+    }
+
+    private Attacks() {}
+
+    private static long bit(int r, int c) {
+        return (r < 0 || r > 7 || c < 0 || c > 7) ? 0L : 1L << (r * 8 + c);
+    }
+
+    private static long ray(int dir, int sq, long occupied) {
+        long attacks = RAYS[dir][sq];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            int b = dir < 4 ? Long.numberOfTrailingZeros(blockers)
+                            : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= RAYS[dir][b];
+        }
+        return attacks;
+    }
+
+    static long rook(int sq, long occupied) {
+        return ray(0, sq, occupied) | ray(1, sq, occupied)
+             | ray(4, sq, occupied) | ray(5, sq, occupied);
+    }
+
+    static long bishop(int sq, long occupied) {
+        return ray(2, sq, occupied) | ray(3, sq, occupied)
+             | ray(6, sq, occupied) | ray(7, sq, occupied);
+    }
+
+    static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+}
@@ -0,0 +1,100 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Piece;
+import Jogo.PstSet;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Avaliação material + PST de muitas posições de uma vez, para tuning e
+ * geração de dados. Mesma conta do {@link Board} com um {@link PstSet}
+ * (pares meio-jogo/final interpolados pela fase, perspectiva das
+ * brancas), só que sobre um {@link PositionBatch} e dividida em tarefas
+ * de fork-join entre os núcleos.
+ */
+public final class BatchEvaluator {
+    private static final int SPLIT = 4096;     // posições por tarefa
+    private static final int[] PHASE = { 0, 4, 2, 1, 1, 0 };   // K, Q, R, B, N, P
+
+    private final int[][] mg = new int[12][64];   // já com o sinal do lado: pretas negativas
+    private final int[][] eg = new int[12][64];
+    private final int[] phase = new int[12];
+    private final ForkJoinPool pool;
+
+    public BatchEvaluator(PstSet pst) {
+        this(pst, ForkJoinPool.commonPool());
+    }
+
+    public BatchEvaluator(PstSet pst, ForkJoinPool pool) {
+        for (Piece p : Piece.values()) {
+            int t = p.ordinal(), sign = p.isWhite() ? 1 : -1;
+            for (int sq = 0; sq < 64; sq++) {
+                mg[t][sq] = sign * pst.mg(p, sq >> 3, sq & 7);
+                eg[t][sq] = sign * pst.eg(p, sq >> 3, sq & 7);
+            }
+            phase[t] = PHASE[t % 6];
+        }
+        this.pool = pool;
+    }
+
+    /** Scores das posições do lote, na ordem em que foram adicionadas. */
+    public int[] evaluate(PositionBatch batch) {
+        int[] out = new int[batch.size()];
+        pool.invoke(new Task(batch, out, 0, batch.size()));
+        return out;
+    }
+
+    /**
+     * Percorre o lote tipo a tipo, lendo cada array de bitboards em
+     * sequência; a fase sai do popcount e a interpolação final é um laço
+     * sem desvios sobre os arrays de somas.
+     */
+    private void evaluate(PositionBatch batch, int[] out, int from, int to) {
+        int n = to - from;
+        int[] mgSum = new int[n], egSum = new int[n], phaseSum = new int[n];
+        for (int t = 0; t < 12; t++) {
+            long[] bbs = batch.pieces[t];
+            int[] mgT = mg[t], egT = eg[t];
+            int w = phase[t];
+            for (int i = 0; i < n; i++) {
+                long bb = bbs[from + i];
+                phaseSum[i] += w * Long.bitCount(bb);
+                for (; bb != 0; bb &= bb - 1) {
+                    int sq = Long.numberOfTrailingZeros(bb);
+                    mgSum[i] += mgT[sq];
+                    egSum[i] += egT[sq];
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int ph = Math.min(phaseSum[i], Board.MAX_PHASE);
+            out[from + i] = (mgSum[i] * ph + egSum[i] * (Board.MAX_PHASE - ph)) / Board.MAX_PHASE;
+        }
+    }
+
+    @SuppressWarnings("serial")   // nunca serializada
+    private final class Task extends RecursiveAction {
+        private final PositionBatch batch;
+        private final int[] out;
+        private final int from, to;
+
+        Task(PositionBatch batch, int[] out, int from, int to) {
+            this.batch = batch;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT) {
+                evaluate(batch, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(batch, out, from, mid), new Task(batch, out, mid, to));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ai;
 import Jogo.Board;
 import Jogo.Move;
 import Jogo.Piece;
+import Jogo.PstSet;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -11,14 +12,28 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class BetterSquares {
+public class BetterSquares implements Engine {
     private static final int PAWN   = 100;
     private static final int KNIGHT = 320;
     private static final int BISHOP = 330;
     private static final int ROOK   = 500;
     private static final int QUEEN  = 900;
     private static final int KING   = 20000;
-    private static final int MATE_SCORE = 100_000_000;
+    // no final os peões e as torres valem mais e as peças menores, menos
+    private static final int PAWN_EG   = 120;
+    private static final int KNIGHT_EG = 300;
+    private static final int BISHOP_EG = 330;
+    private static final int ROOK_EG   = 540;
+    private static final int QUEEN_EG  = 950;
+    private static final int MATE_SCORE = EngineResult.MATE_SCORE;
+    private static final int BITBASE_WIN = EngineResult.BITBASE_WIN;
+
+    private static final int MIN_DEPTH = 3;            // profundidades sempre completadas
+    private static final int MAX_DEPTH = 64;
+    private static final int EASY_MOVE_MIN_DEPTH = 4;
+    private static final int EASY_MOVE_STABLE = 2;     // iterações seguidas com o mesmo melhor lance
+    private static final int EASY_MOVE_MARGIN = 200;
+    private static final int TT_MEGABYTES = 16;
 
     private static final int[][] PST_PAWN = {
             {  0,   0,   0,   0,   0,   0,   0,   0},
@@ -77,6 +92,62 @@ public class BetterSquares {
             { -20, -10, -10,  -5,  -5, -10, -10, -20 }
     };
 
+    // Tabelas de final: peões valem pelo avanço, peças pela centralização
+    private static final int[][] PST_PAWN_END = {
+            {  0,   0,   0,   0,   0,   0,   0,   0 },
+            { 60,  60,  60,  60,  60,  60,  60,  60 },
+            { 40,  40,  40,  40,  40,  40,  40,  40 },
+            { 25,  25,  25,  25,  25,  25,  25,  25 },
+            { 10,  10,  10,  10,  10,  10,  10,  10 },
+            {  0,   0,   0,   0,   0,   0,   0,   0 },
+            {  0,   0,   0,   0,   0,   0,   0,   0 },
+            {  0,   0,   0,   0,   0,   0,   0,   0 }
+    };
+
+    private static final int[][] PST_KNIGHT_END = {
+            { -50, -35, -25, -20, -20, -25, -35, -50 },
+            { -35, -15,  -5,   0,   0,  -5, -15, -35 },
+            { -25,  -5,  10,  15,  15,  10,  -5, -25 },
+            { -20,   0,  15,  25,  25,  15,   0, -20 },
+            { -20,   0,  15,  25,  25,  15,   0, -20 },
+            { -25,  -5,  10,  15,  15,  10,  -5, -25 },
+            { -35, -15,  -5,   0,   0,  -5, -15, -35 },
+            { -50, -35, -25, -20, -20, -25, -35, -50 }
+    };
+
+    private static final int[][] PST_BISHOP_END = {
+            { -15, -10, -10,  -5,  -5, -10, -10, -15 },
+            { -10,  -5,   0,   0,   0,   0,  -5, -10 },
+            { -10,   0,   5,  10,  10,   5,   0, -10 },
+            {  -5,   0,  10,  15,  15,  10,   0,  -5 },
+            {  -5,   0,  10,  15,  15,  10,   0,  -5 },
+            { -10,   0,   5,  10,  10,   5,   0, -10 },
+            { -10,  -5,   0,   0,   0,   0,  -5, -10 },
+            { -15, -10, -10,  -5,  -5, -10, -10, -15 }
+    };
+
+    private static final int[][] PST_ROOK_END = {
+            {   5,   5,   5,   5,   5,   5,   5,   5 },
+            {  10,  10,  10,  10,  10,  10,  10,  10 },
+            {   0,   0,   0,   0,   0,   0,   0,   0 },
+            {   0,   0,   0,   0,   0,   0,   0,   0 },
+            {   0,   0,   0,   0,   0,   0,   0,   0 },
+            {   0,   0,   0,   0,   0,   0,   0,   0 },
+            {   0,   0,   0,   0,   0,   0,   0,   0 },
+            {   0,   0,   0,   0,   0,   0,   0,   0 }
+    };
+
+    private static final int[][] PST_QUEEN_END = {
+            { -20, -10, -10,  -5,  -5, -10, -10, -20 },
+            { -10,   0,   5,   5,   5,   5,   0, -10 },
+            { -10,   5,  10,  15,  15,  10,   5, -10 },
+            {  -5,   5,  15,  20,  20,  15,   5,  -5 },
+            {  -5,   5,  15,  20,  20,  15,   5,  -5 },
+            { -10,   5,  10,  15,  15,  10,   5, -10 },
+            { -10,   0,   5,   5,   5,   5,   0, -10 },
+            { -20, -10, -10,  -5,  -5, -10, -10, -20 }
+    };
+
     private static final int[][] PST_KING_MID = {
             { -30, -40, -40, -50, -50, -40, -40, -30 },
             { -30, -40, -40, -50, -50, -40, -40, -30 },
@@ -101,10 +172,45 @@ public class BetterSquares {
     };
 
 
+    // pares meio-jogo/final indexados por tipo (ordinal % 6: K, Q, R, B, N, P)
+    private static final int[] VALUE_MG = { KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN };
+    private static final int[] VALUE_EG = { KING, QUEEN_EG, ROOK_EG, BISHOP_EG, KNIGHT_EG, PAWN_EG };
+    private static final int[][][] PST_MG = { PST_KING_MID, PST_QUEEN, PST_ROOK, PST_BISHOP, PST_KNIGHT, PST_PAWN };
+    private static final int[][][] PST_EG = { PST_KING_END, PST_QUEEN_END, PST_ROOK_END, PST_BISHOP_END,
+            PST_KNIGHT_END, PST_PAWN_END };
+    /** Material + PST da avaliação, também para {@link BatchEvaluator}. */
+    public static final PstSet PST = new PstSet(VALUE_MG, VALUE_EG, PST_MG, PST_EG);
+    private static final int PAWN_TABLE_ENTRIES = 1 << 16;
+    private static final int EVAL_CACHE_ENTRIES = 1 << 18;
+    // teto dos termos caros (peões, passados livres, mobilidade), interpolado pela
+    // fase; fullEval limita a soma deles a ele, então a saída preguiçosa é exata
+    private static final int LAZY_MARGIN_MG = 200, LAZY_MARGIN_EG = 500;
+    // passado com a casa da frente livre, pela fila relativa
+    private static final int[] FREE_PASSER_EG = { 0, 0, 5, 10, 20, 35, 60, 0 };
+
     private final MoveGenerator gen;
+    private TranspositionTable tt;
+    private final PawnTable pawns = new PawnTable(PAWN_TABLE_ENTRIES);
+    private EvalCache evalCache = new EvalCache(EVAL_CACHE_ENTRIES);
+    private final Mobility mobility = new Mobility();
+    private boolean useMobility;
+    private boolean quiet;
+    private Nnue network;                              // null: material + PST
+    private PstSet pst = PST;                          // PST ou parâmetros carregados
+    private int hashMegabytes = TT_MEGABYTES;
+    private EndgameBitbases bitbases;
+    private long nodes;
+    private long lazyProbes, lazyExits;                // avaliações preguiçosas e saídas antecipadas
+    private boolean armed;            // prazo vale a partir de MIN_DEPTH
+    private long budgetDeadline;      // Long.MAX_VALUE = sem limite de tempo
+    private boolean timed;            // só buscas com tempo leem o relógio
+    private long nodeLimit = Long.MAX_VALUE;
+    private int depthLimit = MAX_DEPTH;
+    private List<PvLine> lines = new ArrayList<>();
 
     public BetterSquares() {
         this.gen = new MoveGenerator();
+        this.tt = new TranspositionTable(TT_MEGABYTES);
     }
 
     /**
@@ -122,83 +228,309 @@ public class BetterSquares {
 
     /**
      * Encontra o melhor movimento com logs e PV.
+     * Aprofundamento iterativo de 1 em 1 ply: a raiz é reordenada a cada
+     * iteração (PV primeiro, depois score e nós da subárvore) e a busca
+     * termina cedo quando um lance domina claramente os outros.
      */
     public Move findBestMoveAlphaBetaTimed(Board board, boolean engineWhite, long timeLimitMs) {
+        return findBestMove(board, engineWhite, SearchLimits.time(timeLimitMs));
+    }
+
+    /** Busca com limite de nós, profundidade e/ou tempo. */
+    public Move findBestMove(Board board, boolean engineWhite, SearchLimits limits) {
+        applyLimits(limits);
+        return search(board, engineWhite, 1);
+    }
+
+    /**
+     * Análise MultiPV: as {@code multiPv} melhores linhas da raiz, pesquisadas
+     * numa só busca com a tabela de transposição compartilhada. Cada lance da
+     * raiz só precisa superar a K-ésima melhor linha para entrar na lista.
+     *
+     * @return linhas da última iteração completa, da melhor para a pior
+     */
+    public List<PvLine> analyze(Board board, boolean engineWhite, long timeLimitMs, int multiPv) {
+        return analyze(board, engineWhite, SearchLimits.time(timeLimitMs), multiPv);
+    }
+
+    public List<PvLine> analyze(Board board, boolean engineWhite, SearchLimits limits, int multiPv) {
+        if (multiPv < 1) throw new IllegalArgumentException("multiPv deve ser >= 1");
+        applyLimits(limits);
+        search(board, engineWhite, multiPv);
+        return lines;
+    }
+
+    @Override
+    public String getName() {
+        return "BetterSquares";
+    }
+
+    @Override
+    public EngineResult search(Board board, SearchRequest request) {
+        if (request.getHashMegabytes() != hashMegabytes) {
+            hashMegabytes = request.getHashMegabytes();
+            tt = new TranspositionTable(hashMegabytes);
+        }
+        applyLimits(request.getLimits());
+        Move best = search(board, board.isWhiteToMove(), 1);
+        if (lines.isEmpty()) return new EngineResult(best, 0, 0, nodes, best == null ? List.of() : List.of(best));
+        PvLine line = lines.get(0);
+        return new EngineResult(best, line.getScore(), line.getDepth(), nodes, line.getPv());
+    }
+
+    @Override
+    public void newGame() {
+        tt.clear();
+    }
+
+    /** Troca o cache de avaliação por um vazio com {@code entries} entradas. */
+    public void setEvalCacheEntries(int entries) {
+        evalCache = new EvalCache(entries);
+    }
+
+    public EvalCache getEvalCache() {
+        return evalCache;
+    }
+
+    /** Tabelas iniciais, ponto de partida do {@code app.Tuner}. */
+    public static EvalParams defaultParams() {
+        return new EvalParams(VALUE_MG, VALUE_EG, PST_MG, PST_EG);
+    }
+
+    /** Troca valores de peça e PST pelos do arquivo; null volta às tabelas da classe. */
+    @Override
+    public void setEvalParams(EvalParams params) {
+        pst = params == null ? PST : params.toPstSet();
+        evalCache = new EvalCache(evalCache.size());
+    }
+
+    /** Cala as mensagens de busca (partidas em lote). */
+    @Override
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /** Liga o termo de mobilidade e espaço ({@link Mobility}) na avaliação. */
+    @Override
+    public void setMobility(boolean enabled) {
+        useMobility = enabled;
+        evalCache = new EvalCache(evalCache.size());
+    }
+
+    /** Avalia com a rede NNUE no lugar das PST; null volta às PST. */
+    @Override
+    public void setNetwork(Nnue network) {
+        this.network = network;
+        evalCache = new EvalCache(evalCache.size());   // scores da avaliação anterior
+    }
+
+    /** Bitbases consultados na busca; null desliga a consulta. */
+    @Override
+    public void setBitbases(EndgameBitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /** Nós visitados pela última busca (assinatura de buscas determinísticas). */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private void applyLimits(SearchLimits limits) {
+        timed = limits.getTimeMs() > 0;
+        budgetDeadline = timed ? System.nanoTime() + limits.getTimeMs() * 1_000_000L : Long.MAX_VALUE;
+        nodeLimit  = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        depthLimit = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_DEPTH) : MAX_DEPTH;
+    }
+
+    private Move search(Board board, boolean engineWhite, int multiPv) {
+        board = new Board(board);
+        board.setPst(pst);   // daqui em diante o Board mantém as somas de material/PST
+        if (network != null) board.setNnue(network.getFeatures());
+        lines = new ArrayList<>();
+        nodes = 0;
+        lazyProbes = lazyExits = 0;
         List<Move> moves = gen.generateLegalMoves(board, engineWhite);
         if (moves.isEmpty()) return null;
+        if (moves.size() == 1 && multiPv == 1) {
+            log("Lance único → %s%n", moves.get(0));
+            lines.add(new PvLine(moves.get(0), 0, 0, moves));
+            return moves.get(0);
+        }
 
-        long start = System.nanoTime();
-        long limit = timeLimitMs * 1_000_000L;
+        List<RootMove> rootMoves = RootMove.of(moves);
         Move bestMove = moves.get(0);
         List<Move> bestPV = new ArrayList<>();
+        int stableIterations = 0;
+        armed = false;
 
-        try {
-            for (int depth = 1; ; depth+=2) {
-                if ((System.nanoTime() - start > limit) && depth >3) {
-                    System.out.println(depth);
-                    System.out.println("Tempo esgotou antes de depth=" + depth + " → parada.");
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            if (depth > MIN_DEPTH) {
+                if (nodes >= nodeLimit || (timed && System.nanoTime() > budgetDeadline)) {
+                    log("Limite atingido antes de depth=%d → parada.%n", depth);
                     break;
                 }
+                armed = true;
+            }
 
-                int alpha = engineWhite ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-                Move currentBest = null;
-                List<Move> currentPV = new ArrayList<>();
+            // top-K desta iteração, do melhor para o pior; o K-ésimo é o limite da janela
+            List<PvLine> current = new ArrayList<>();
+            boolean completed = false;
 
-                for (Move m : moves) {
+            try {
+                for (RootMove rm : rootMoves) {
+                    int bound = current.size() < multiPv
+                            ? (engineWhite ? Integer.MIN_VALUE : Integer.MAX_VALUE)
+                            : current.get(multiPv - 1).getScore();
+                    long before = nodes;
                     Board next = new Board(board);
-                    next.makeMove(m);
+                    next.makeMove(rm.move);
 
                     SearchResult res = next.isInCheck(!engineWhite)
                             ? forcedCheckSequenceWithPV(next, engineWhite, 3)
                             : alphabetaTimedWithPV(next, depth - 1, !engineWhite,
-                            Integer.MIN_VALUE, Integer.MAX_VALUE);
-
-                    System.out.printf("Depth %d | Move %s → Eval %d | PV: %s%n",
-                            depth, m, res.score, res.pv);
-
-                    if (engineWhite ? (res.score > alpha) : (res.score < alpha)) {
-                        alpha = res.score;
-                        currentBest = m;
-                        currentPV.clear();
-                        currentPV.add(m);
-                        currentPV.addAll(res.pv);
+                            engineWhite ? bound : Integer.MIN_VALUE,
+                            engineWhite ? Integer.MAX_VALUE : bound);
+                    rm.score = res.score;
+                    rm.nodes = nodes - before;
+
+                    boolean improved = current.size() < multiPv
+                            || (engineWhite ? (res.score > bound) : (res.score < bound));
+                    log("Depth %d | Move %s → Eval %s | PV: %s%n",
+                            depth, rm.move, improved ? res.score : (engineWhite ? "<=" : ">=") + res.score, res.pv);
+
+                    if (improved) {
+                        List<Move> pv = new ArrayList<>();
+                        pv.add(rm.move);
+                        pv.addAll(res.pv);
+                        insertLine(current, new PvLine(rm.move, res.score, depth, pv), engineWhite, multiPv);
                     }
-                    if ((engineWhite && res.score >= MATE_SCORE) ||
-                            (!engineWhite && res.score <= -MATE_SCORE)) {
+                    if (multiPv == 1 && ((engineWhite && res.score >= MATE_SCORE) ||
+                            (!engineWhite && res.score <= -MATE_SCORE))) {
                         break;
                     }
                 }
+                completed = true;
+            } catch (SearchTimeoutException e) {
+                // iteração interrompida: o lance da PV é pesquisado primeiro,
+                // então qualquer melhor parcial já o superou nesta profundidade
+            }
 
-                if (currentBest != null) {
-                    bestMove = currentBest;
-                    bestPV   = new ArrayList<>(currentPV);
-                }
+            if (!current.isEmpty()) {
+                Move currentBest = current.get(0).getMove();
+                stableIterations = currentBest.equals(bestMove) ? stableIterations + 1 : 0;
+                bestMove = currentBest;
+                bestPV   = new ArrayList<>(current.get(0).getPv());
+            }
+            if (!completed) {
+                log("Limite atingido durante depth=%d → parada.%n", depth);
+                break;
+            }
+            lines = current;
 
-                System.out.printf("→ Depth %d: Best %s | Score %d | PV: %s%n",
-                        depth, bestMove, alpha, bestPV);
+            int alpha = current.get(0).getScore();
+            log("→ Depth %d: Best %s | Score %d | PV: %s%n",
+                    depth, bestMove, alpha, bestPV);
+            for (int i = 1; i < current.size(); i++) {
+                log("  Linha %d: Score %d | PV: %s%n", i + 1, current.get(i).getScore(), current.get(i).getPv());
+            }
 
-                if ((engineWhite && alpha >= MATE_SCORE) ||
-                        (!engineWhite && alpha <= -MATE_SCORE)) {
-                    break;
-                }
+            if (multiPv == 1 && ((engineWhite && alpha >= MATE_SCORE) ||
+                    (!engineWhite && alpha <= -MATE_SCORE))) {
+                break;
+            }
+
+            RootMove.sort(rootMoves, bestMove, engineWhite);
+            if (multiPv == 1 && depth >= EASY_MOVE_MIN_DEPTH && stableIterations >= EASY_MOVE_STABLE
+                    && (budgetDeadline != Long.MAX_VALUE || nodeLimit != Long.MAX_VALUE)
+                    && isEasyMove(board, rootMoves, engineWhite, depth, alpha)) {
+                log("Lance fácil em depth=%d → %s%n", depth, bestMove);
+                break;
             }
-        } catch (SearchTimeoutException e) {
-            // timeout
         }
+
+        log("Cache de avaliação: %.1f%% de acertos; avaliação preguiçosa: %d de %d saíram cedo%n",
+                evalCache.hitRate(), lazyExits, lazyProbes);
         return bestMove;
     }
 
+    /** Insere a linha mantendo a lista ordenada do melhor para o pior e com no máximo K linhas. */
+    private static void insertLine(List<PvLine> lines, PvLine line, boolean engineWhite, int multiPv) {
+        int i = 0;
+        while (i < lines.size() && (engineWhite
+                ? lines.get(i).getScore() >= line.getScore()
+                : lines.get(i).getScore() <= line.getScore())) {
+            i++;
+        }
+        lines.add(i, line);
+        if (lines.size() > multiPv) lines.remove(lines.size() - 1);
+    }
+
+    private void log(String format, Object... args) {
+        if (!quiet) System.out.printf(format, args);
+    }
+
+    /**
+     * Lance fácil: nenhum outro lance da raiz chega a EASY_MOVE_MARGIN do
+     * melhor numa busca reduzida de janela nula.
+     */
+    private boolean isEasyMove(Board board, List<RootMove> rootMoves, boolean engineWhite,
+                               int depth, int bestScore) {
+        if (Math.abs(bestScore) >= MATE_SCORE) return false;
+        int bound = engineWhite ? bestScore - EASY_MOVE_MARGIN : bestScore + EASY_MOVE_MARGIN;
+        int reduced = Math.max(0, depth - 3);
+        try {
+            for (int i = 1; i < rootMoves.size(); i++) {
+                Board next = new Board(board);
+                next.makeMove(rootMoves.get(i).move);
+                int score = engineWhite
+                        ? alphabetaTimedWithPV(next, reduced, false, bound, bound + 1).score
+                        : alphabetaTimedWithPV(next, reduced, true, bound - 1, bound).score;
+                if (engineWhite ? score > bound : score < bound) return false;
+            }
+        } catch (SearchTimeoutException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /** Conta o nó e interrompe a busca quando o prazo da iteração acabou. */
+    private void countNode() {
+        nodes++;
+        if (armed && (nodes >= nodeLimit || (timed && System.nanoTime() > budgetDeadline))) {
+            throw new SearchTimeoutException();
+        }
+    }
+
     /**
      * Alpha-beta com PV.
      */
     private SearchResult alphabetaTimedWithPV(Board board, int depth,
                                               boolean maxPlayer, int alpha, int beta) {
+        countNode();
         if (depth == 0 || board.isGameOver()) {
             int v = board.isGameOver()
                     ? scoreTerminal(board, depth)
                     : quiescence(board, alpha, beta, maxPlayer);
             return new SearchResult(v, new ArrayList<>());
         }
+        // empate provado corta a subárvore; vitórias seguem buscando o caminho
+        if (probeBitbases(board) == EndgameBitbases.DRAW) {
+            return new SearchResult(0, new ArrayList<>());
+        }
+
+        long ttEntry = tt.probe(board.getHash());
+        Move ttMove = TranspositionTable.moveOf(ttEntry);
+        if (ttEntry != 0 && TranspositionTable.depthOf(ttEntry) >= depth) {
+            int ttScore = TranspositionTable.scoreOf(ttEntry);
+            int flag = TranspositionTable.flagOf(ttEntry);
+            if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER && ttScore >= beta)
+                    || (flag == TranspositionTable.UPPER && ttScore <= alpha)) {
+                List<Move> pv = new ArrayList<>();
+                if (ttMove != null) pv.add(ttMove);
+                return new SearchResult(ttScore, pv);
+            }
+        }
 
         List<Move> moves = gen.generateLegalMoves(board, maxPlayer);
         if (moves.isEmpty()) {
@@ -206,6 +538,8 @@ public class BetterSquares {
         }
 
         orderMoves(board, moves, maxPlayer);
+        if (ttMove != null && moves.remove(ttMove)) moves.add(0, ttMove);
+        int alphaOrig = alpha, betaOrig = beta;
         SearchResult best = new SearchResult(
                 maxPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE,
                 new ArrayList<>());
@@ -230,6 +564,14 @@ public class BetterSquares {
                 if (beta <= alpha || best.score <= -MATE_SCORE) break;
             }
         }
+
+        if (Math.abs(best.score) < MATE_SCORE) {
+            int flag = best.score <= alphaOrig ? TranspositionTable.UPPER
+                    : best.score >= betaOrig ? TranspositionTable.LOWER
+                    : TranspositionTable.EXACT;
+            tt.store(board.getHash(), depth, best.score, flag,
+                    best.pv.isEmpty() ? null : best.pv.get(0));
+        }
         return best;
     }
 
@@ -242,6 +584,7 @@ public class BetterSquares {
     private SearchResult forcedCheckSequenceWithPV(Board board,
                                                    boolean engineWhite,
                                                    int remChecks) {
+        countNode();
         // folha: sem mais checks forçados, sem cheque ou posição terminada
         if (remChecks == 0 || !board.isInCheck(!engineWhite) || board.isGameOver()) {
             int v = board.isGameOver()
@@ -367,10 +710,13 @@ public class BetterSquares {
      * Quiescence search, detecta game over primeiro.
      */
     private int quiescence(Board board, int alpha, int beta, boolean maxPlayer) {
+        countNode();
         if (board.isGameOver()) {
             return scoreTerminal(board, 0);
         }
-        int standPat = evaluate(board);
+        int known = probeBitbases(board);
+        if (known != EndgameBitbases.UNKNOWN) return bitbaseScore(board, known);
+        int standPat = evaluate(board, alpha, beta);
         if (maxPlayer) {
             if (standPat >= beta) return beta;
             alpha = Math.max(alpha, standPat);
@@ -478,6 +824,25 @@ public class BetterSquares {
     }
 
 
+    private int probeBitbases(Board board) {
+        if (bitbases == null || board.getPieceCount() > EndgameBitbases.MAX_PIECES) {
+            return EndgameBitbases.UNKNOWN;
+        }
+        return bitbases.probe(board);
+    }
+
+    /** Score de folha para um resultado provado; o mop-up guia o lado forte ao mate. */
+    private int bitbaseScore(Board board, int result) {
+        switch (result) {
+            case EndgameBitbases.WHITE_WINS:
+                return BITBASE_WIN + evaluate(board) + EndgameBitbases.mopUp(board);
+            case EndgameBitbases.BLACK_WINS:
+                return -BITBASE_WIN + evaluate(board) - EndgameBitbases.mopUp(board);
+            default:
+                return 0;
+        }
+    }
+
     /** Converte resultado de jogo em score. */
     private int scoreTerminal(Board b, int depth) {
         switch (b.getGameResult()) {
@@ -492,66 +857,106 @@ public class BetterSquares {
         }
     }
 
-    /** Avaliação material simples. */
+    /** Avaliação estática, consultando antes o {@link EvalCache}. */
+    private int evaluate(Board board) {
+        long key = board.getHash();
+        int cached = evalCache.probe(key);
+        if (cached != EvalCache.MISS) return cached;
+        int eval = staticEval(board);
+        evalCache.store(key, eval);
+        return eval;
+    }
+
     /**
-     * Avalia a posição somando valor material + bônus posicional (PST),
-     * escolhendo tabela de fim de jogo para o rei quando não há damas em tabuleiro.
+     * Avaliação em estágios para o stand-pat: material + PST sai de graça
+     * do Board; se já estiver a mais da margem da fase fora da janela, os
+     * termos caros (limitados à mesma margem) não mudariam o corte e o score
+     * parcial volta direto (sem ir para o cache, que só guarda avaliações
+     * completas).
      */
-    private int evaluate(Board board) {
-        int score = 0;
-
-        // 1) Detecta fim de jogo: se não houver damas no tabuleiro
-        boolean endgame = true;
-        for (int r = 0; r < 8 && endgame; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p == Piece.WHITE_QUEEN || p == Piece.BLACK_QUEEN) {
-                    endgame = false;
-                    break;
-                }
-            }
+    private int evaluate(Board board, int alpha, int beta) {
+        if (network != null) return evaluate(board);
+        long key = board.getHash();
+        int cached = evalCache.probe(key);
+        if (cached != EvalCache.MISS) return cached;
+        board = withPst(board);
+        int mg = board.getMgScore(true) - board.getMgScore(false);
+        int eg = board.getEgScore(true) - board.getEgScore(false);
+        lazyProbes++;
+        int lazy = taper(mg, eg, board.getPhase());
+        int margin = lazyMargin(board.getPhase());
+        if (lazy + margin <= alpha || lazy - margin >= beta) {
+            lazyExits++;
+            return lazy;
         }
+        int eval = fullEval(board, mg, eg);
+        evalCache.store(key, eval);
+        return eval;
+    }
 
-        // 2) Soma material + PST de cada peça
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p == null) continue;
-                boolean white = p.isWhite();
-
-                // Valor material
-                int base = pieceValue(p);
-
-                // Bônus posicional
-                int pst = 0;
-                switch (p) {
-                    case WHITE_PAWN, BLACK_PAWN ->
-                            pst = PST_PAWN[ white ? r : 7 - r ][ c ];
-                    case WHITE_KNIGHT, BLACK_KNIGHT ->
-                            pst = PST_KNIGHT[ white ? r : 7 - r ][ c ];
-                    case WHITE_BISHOP, BLACK_BISHOP ->
-                            pst = PST_BISHOP[ white ? r : 7 - r ][ c ];
-                    case WHITE_ROOK, BLACK_ROOK ->
-                            pst = PST_ROOK[ white ? r : 7 - r ][ c ];
-                    case WHITE_QUEEN, BLACK_QUEEN ->
-                            pst = PST_QUEEN[ white ? r : 7 - r ][ c ];
-                    case WHITE_KING, BLACK_KING -> {
-                        if (endgame) {
-                            pst = PST_KING_END[ white ? r : 7 - r ][ c ];
-                        } else {
-                            pst = PST_KING_MID[ white ? r : 7 - r ][ c ];
-                        }
-                    }
-                }
+    private Board withPst(Board board) {
+        if (board.getPst() != pst) {
+            board = new Board(board);
+            board.setPst(pst);
+        }
+        return board;
+    }
 
-                int pieceScore = base + pst;
-                score += white ? pieceScore : -pieceScore;
-            }
+    private static int taper(int mg, int eg, int phase) {
+        return (mg * phase + eg * (Board.MAX_PHASE - phase)) / Board.MAX_PHASE;
+    }
+
+    private static int lazyMargin(int phase) {
+        return taper(LAZY_MARGIN_MG, LAZY_MARGIN_EG, phase);
+    }
+
+    /**
+     * Material + PST em dois pares, meio-jogo e final, já somados pelo Board
+     * a cada lance, mais a estrutura de peões da {@link PawnTable} e, se
+     * ligada, a mobilidade, interpolados pela fase.
+     */
+    private int staticEval(Board board) {
+        if (network != null) return network.evaluate(board);
+        board = withPst(board);
+        return fullEval(board, board.getMgScore(true) - board.getMgScore(false),
+                board.getEgScore(true) - board.getEgScore(false));
+    }
+
+    /**
+     * Material + PST interpolado mais os termos caros, também interpolados e
+     * limitados a ±{@link #lazyMargin} da fase (a margem da avaliação
+     * preguiçosa).
+     */
+    private int fullEval(Board board, int mg, int eg) {
+        // estrutura de peões: quase sempre acerto na tabela
+        int entry = pawns.probe(board);
+        int extraMg = pawns.mg(entry);
+        int extraEg = pawns.eg(entry)
+                + freePassers(board, pawns.passed(entry, true), true)
+                - freePassers(board, pawns.passed(entry, false), false);
+        if (useMobility) {
+            mobility.evaluate(board);
+            extraMg += mobility.mg();
+            extraEg += mobility.eg();
         }
 
-        return score;
+        int phase = board.getPhase();
+        int margin = lazyMargin(phase);
+        int extra = Math.max(-margin, Math.min(margin, taper(extraMg, extraEg, phase)));
+        return taper(mg, eg, phase) + extra;
     }
 
 
+    private static int freePassers(Board board, long passed, boolean white) {
+        int bonus = 0;
+        for (; passed != 0; passed &= passed - 1) {
+            int sq = Long.numberOfTrailingZeros(passed);
+            int r = sq >> 3, c = sq & 7;
+            int stop = white ? r + 1 : r - 1;
+            if (board.getPiece(stop, c) == null) bonus += FREE_PASSER_EG[white ? r : 7 - r];
+        }
+        return bonus;
+    }
+
     private static class SearchTimeoutException extends RuntimeException {}
 }
@@ -0,0 +1,226 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Gera por análise retrógrada o bitbase vitória/empate de um final em que
+ * as brancas têm rei + {@code pieces} e as pretas só o rei (o lado forte é
+ * sempre normalizado para brancas). A partir dos mates, cada passada marca
+ * como vitória as posições com brancas a jogar que têm um lance para uma
+ * posição perdida das pretas, e as posições com pretas a jogar em que todos
+ * os lances levam a vitórias brancas; repete até não mudar nada. O que
+ * sobra é empate. As passadas rodam em paralelo por blocos de índices.
+ *
+ * Índice: lado a jogar (0 = brancas), rei branco, rei preto e cada peça,
+ * 6 bits por casa (linha * 8 + coluna).
+ */
+final class BitbaseGenerator {
+    private static final byte UNKNOWN = 0;
+    private static final byte WIN     = 1;   // brancas vencem
+    private static final byte DRAW    = 2;   // empate provado (captura, afogamento)
+    private static final byte INVALID = 3;
+
+    private static final int CHUNK = 1 << 15;
+
+    private final char[] pieces;             // 'Q', 'R', 'B', 'N' ou 'P'
+    private final int n;                     // casas no índice (reis + peças)
+    private final EndgameBitbases subTables; // promoções do KPK
+    private byte[] state;
+
+    BitbaseGenerator(String pieces, EndgameBitbases subTables) {
+        this.pieces = pieces.toCharArray();
+        this.n = pieces.length() + 2;
+        this.subTables = subTables;
+    }
+
+    static int size(int squares) {
+        return 2 << (6 * squares);
+    }
+
+    static int index(int stm, int[] sq, int squares) {
+        int x = stm;
+        for (int j = 0; j < squares; j++) x = (x << 6) | sq[j];
+        return x;
+    }
+
+    /** @return um bit por índice, ligado quando as brancas vencem */
+    long[] generate() {
+        int size = size(n);
+        state = new byte[size];
+        forEachChunk(size, (from, to) -> {
+            int[] sq = new int[n];
+            for (int i = from; i < to; i++) state[i] = initialize(i, sq);
+        });
+
+        AtomicBoolean changed = new AtomicBoolean(true);
+        while (changed.getAndSet(false)) {
+            forEachChunk(size, (from, to) -> {
+                int[] sq = new int[n];
+                boolean any = false;
+                for (int i = from; i < to; i++) {
+                    if (state[i] == UNKNOWN && resolve(i, sq)) {
+                        state[i] = WIN;
+                        any = true;
+                    }
+                }
+                if (any) changed.set(true);
+            });
+        }
+
+        long[] bits = new long[size >>> 6];
+        for (int i = 0; i < size; i++) {
+            if (state[i] == WIN) bits[i >>> 6] |= 1L << i;
+        }
+        state = null;
+        return bits;
+    }
+
+    private interface ChunkTask {
+        void run(int from, int to);
+    }
+
+    private static void forEachChunk(int size, ChunkTask task) {
+        IntStream.range(0, (size + CHUNK - 1) / CHUNK).parallel()
+                .forEach(c -> task.run(c * CHUNK, Math.min(size, (c + 1) * CHUNK)));
+    }
+
+    /** Decodifica o índice em {@code sq} e devolve o lado a jogar. */
+    private int decode(int idx, int[] sq) {
+        for (int j = n - 1; j >= 0; j--) {
+            sq[j] = idx & 63;
+            idx >>>= 6;
+        }
+        return idx;
+    }
+
+    private byte initialize(int idx, int[] sq) {
+        int stm = decode(idx, sq);
+        long occ = 0;
+        for (int j = 0; j < n; j++) {
+            long b = 1L << sq[j];
+            if ((occ & b) != 0) return INVALID;
+            occ |= b;
+        }
+        for (int j = 2; j < n; j++) {
+            int row = sq[j] >> 3;
+            if (pieces[j - 2] == 'P' && (row == 0 || row == 7)) return INVALID;
+        }
+        int wk = sq[0], bk = sq[1];
+        if ((Attacks.KING[wk] & (1L << bk)) != 0) return INVALID;
+
+        if (stm == 0) {
+            // pretas não podem estar em xeque com brancas a jogar
+            if ((whiteAttacks(sq, occ, -1) & (1L << bk)) != 0) return INVALID;
+            return promotionWins(sq, occ) ? WIN : UNKNOWN;
+        }
+
+        boolean inCheck = (whiteAttacks(sq, occ, -1) & (1L << bk)) != 0;
+        int legal = 0;
+        for (long targets = Attacks.KING[bk]; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if ((Attacks.KING[wk] & (1L << to)) != 0) continue;
+            int captured = pieceAt(sq, to);
+            long occAfter = occ & ~(1L << bk);
+            if ((whiteAttacks(sq, occAfter, captured) & (1L << to)) != 0) continue;
+            // captura legal: o que sobra (KK, KBK, KNK) é empate
+            if (captured >= 0) return DRAW;
+            legal++;
+        }
+        if (legal == 0) return inCheck ? WIN : DRAW;
+        return UNKNOWN;
+    }
+
+    private boolean resolve(int idx, int[] sq) {
+        int stm = decode(idx, sq);
+        long occ = 0;
+        for (int j = 0; j < n; j++) occ |= 1L << sq[j];
+        long white = occ & ~(1L << sq[1]);
+        return stm == 0 ? whiteHasWinningMove(sq, occ, white) : blackIsLost(sq, occ);
+    }
+
+    private boolean whiteHasWinningMove(int[] sq, long occ, long white) {
+        int wk = sq[0], bk = sq[1];
+        for (long t = Attacks.KING[wk] & ~white & ~Attacks.KING[bk]; t != 0; t &= t - 1) {
+            sq[0] = Long.numberOfTrailingZeros(t);
+            boolean win = state[index(1, sq, n)] == WIN;
+            sq[0] = wk;
+            if (win) return true;
+        }
+        for (int j = 2; j < n; j++) {
+            int from = sq[j];
+            long targets;
+            if (pieces[j - 2] == 'P') {
+                targets = 0;
+                int one = from + 8;
+                // promoções já foram resolvidas em initialize()
+                if ((occ & (1L << one)) == 0 && (one >> 3) < 7) {
+                    targets |= 1L << one;
+                    if ((from >> 3) == 1 && (occ & (1L << (one + 8))) == 0) targets |= 1L << (one + 8);
+                }
+            } else {
+                targets = pieceAttacks(pieces[j - 2], from, occ) & ~white;
+            }
+            for (; targets != 0; targets &= targets - 1) {
+                sq[j] = Long.numberOfTrailingZeros(targets);
+                boolean win = state[index(1, sq, n)] == WIN;
+                sq[j] = from;
+                if (win) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean blackIsLost(int[] sq, long occ) {
+        int wk = sq[0], bk = sq[1];
+        long occAfter = occ & ~(1L << bk);
+        long attacked = whiteAttacks(sq, occAfter, -1);
+        for (long t = Attacks.KING[bk] & ~Attacks.KING[wk] & ~attacked & ~occ; t != 0; t &= t - 1) {
+            sq[1] = Long.numberOfTrailingZeros(t);
+            boolean win = state[index(0, sq, n)] == WIN;
+            sq[1] = bk;
+            if (!win) return false;
+        }
+        return true;
+    }
+
+    /** Peão na 7ª que promove a dama ou torre para uma posição ganha do KQK/KRK. */
+    private boolean promotionWins(int[] sq, long occ) {
+        if (subTables == null) return false;
+        for (int j = 2; j < n; j++) {
+            if (pieces[j - 2] != 'P' || (sq[j] >> 3) != 6) continue;
+            int to = sq[j] + 8;
+            if ((occ & (1L << to)) != 0) continue;
+            int[] promoted = {sq[0], sq[1], to};
+            if (subTables.whiteWins("KQK", 1, promoted) || subTables.whiteWins("KRK", 1, promoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int pieceAt(int[] sq, int square) {
+        for (int j = 2; j < n; j++) if (sq[j] == square) return j;
+        return -1;
+    }
+
+    /** Casas atacadas pelas brancas, ignorando a peça {@code skip} (capturada). */
+    private long whiteAttacks(int[] sq, long occ, int skip) {
+        long a = Attacks.KING[sq[0]];
+        for (int j = 2; j < n; j++) {
+            if (j == skip) continue;
+            a |= pieces[j - 2] == 'P' ? Attacks.WHITE_PAWN[sq[j]] : pieceAttacks(pieces[j - 2], sq[j], occ);
+        }
+        return a;
+    }
+
+    private static long pieceAttacks(char piece, int sq, long occ) {
+        return switch (piece) {
+            case 'Q' -> Attacks.queen(sq, occ);
+            case 'R' -> Attacks.rook(sq, occ);
+            case 'B' -> Attacks.bishop(sq, occ);
+            case 'N' -> Attacks.KNIGHT[sq];
+            default  -> throw new IllegalStateException("Peça sem tabela: " + piece);
+        };
+    }
+}
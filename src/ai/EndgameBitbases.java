@@ -0,0 +1,209 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Piece;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bitbases vitória/empate para finais simples (KQK, KRK, KPK, KBNK), um bit
+ * por posição. São gerados por {@link BitbaseGenerator} na primeira vez e
+ * guardados num arquivo local; depois só são lidos. A sonda normaliza a
+ * posição para o lado forte jogar de brancas.
+ */
+public class EndgameBitbases {
+    public static final int WHITE_WINS = 1;
+    public static final int DRAW = 0;
+    public static final int BLACK_WINS = -1;
+    public static final int UNKNOWN = 2;
+
+    public static final int MAX_PIECES = 4;
+    /** Tabelas em ordem de dependência: KPK usa KQK e KRK nas promoções. */
+    public static final String[] ALL = {"KQK", "KRK", "KPK", "KBNK"};
+
+    private static final int MAGIC = 0x4B424231;   // "KBB1"
+    private static final String PIECE_ORDER = "QRBNP";
+
+    private final Map<String, long[]> tables = new LinkedHashMap<>();
+
+    /**
+     * Lê os bitbases de {@code cache}; os que faltarem são gerados e o
+     * arquivo é regravado.
+     */
+    public static EndgameBitbases loadOrGenerate(Path cache, String... names) {
+        EndgameBitbases bb = new EndgameBitbases();
+        if (Files.exists(cache)) {
+            try {
+                bb.read(cache);
+            } catch (IOException e) {
+                System.out.println("Cache de bitbases ilegível (" + e.getMessage() + "), gerando de novo.");
+                bb.tables.clear();
+            }
+        }
+        boolean generated = false;
+        for (String name : names) {
+            if (bb.tables.containsKey(name)) continue;
+            if (name.equals("KPK")) {
+                for (String dep : new String[]{"KQK", "KRK"}) {
+                    if (!bb.tables.containsKey(dep)) bb.generate(dep);
+                }
+            }
+            bb.generate(name);
+            generated = true;
+        }
+        if (generated) {
+            try {
+                bb.write(cache);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao gravar bitbases em " + cache, e);
+            }
+        }
+        return bb;
+    }
+
+    private void generate(String name) {
+        long start = System.nanoTime();
+        String pieces = name.substring(1, name.length() - 1);
+        tables.put(name, new BitbaseGenerator(pieces, this).generate());
+        System.out.printf("Bitbase %s gerado em %d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean has(String name) {
+        return tables.containsKey(name);
+    }
+
+    boolean whiteWins(String name, int stm, int[] sq) {
+        long[] bits = tables.get(name);
+        if (bits == null) return false;
+        int idx = BitbaseGenerator.index(stm, sq, sq.length);
+        return (bits[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    /**
+     * @return WHITE_WINS, DRAW ou BLACK_WINS com jogo perfeito, ou UNKNOWN
+     *         se o material não estiver coberto
+     */
+    public int probe(Board board) {
+        if (board.getPieceCount() > MAX_PIECES) return UNKNOWN;
+
+        int wk = -1, bk = -1, extra = 0;
+        Piece[] pieces = new Piece[2];
+        int[] squares = new int[2];
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p == null) continue;
+                if (p == Piece.WHITE_KING) wk = r * 8 + c;
+                else if (p == Piece.BLACK_KING) bk = r * 8 + c;
+                else {
+                    if (extra == 2) return UNKNOWN;
+                    pieces[extra] = p;
+                    squares[extra++] = r * 8 + c;
+                }
+            }
+        }
+        if (wk < 0 || bk < 0) return UNKNOWN;
+        if (extra == 0) return DRAW;
+        if (extra == 2 && pieces[0].isWhite() != pieces[1].isWhite()) return UNKNOWN;
+        if (extra == 2 && PIECE_ORDER.indexOf(type(pieces[0])) > PIECE_ORDER.indexOf(type(pieces[1]))) {
+            Piece p = pieces[0]; pieces[0] = pieces[1]; pieces[1] = p;
+            int s = squares[0]; squares[0] = squares[1]; squares[1] = s;
+        }
+
+        StringBuilder name = new StringBuilder("K");
+        for (int i = 0; i < extra; i++) name.append(type(pieces[i]));
+        name.append('K');
+        String key = name.toString();
+        if (key.equals("KBK") || key.equals("KNK")) return DRAW;
+        if (!tables.containsKey(key)) return UNKNOWN;
+
+        // lado forte vira brancas: espelha as linhas (casa ^ 56) se forem as pretas
+        boolean strongWhite = pieces[0].isWhite();
+        int flip = strongWhite ? 0 : 56;
+        int[] sq = new int[extra + 2];
+        sq[0] = (strongWhite ? wk : bk) ^ flip;
+        sq[1] = (strongWhite ? bk : wk) ^ flip;
+        for (int i = 0; i < extra; i++) sq[i + 2] = squares[i] ^ flip;
+        int stm = board.isWhiteToMove() == strongWhite ? 0 : 1;
+
+        if (!whiteWins(key, stm, sq)) return DRAW;
+        return strongWhite ? WHITE_WINS : BLACK_WINS;
+    }
+
+    /**
+     * Bônus para o lado forte progredir numa vitória: rei fraco na borda
+     * (no KBNK, no canto da cor do bispo) e reis próximos.
+     */
+    public static int mopUp(Board board) {
+        int wk = -1, bk = -1, bishop = -1;
+        boolean whiteStrong = true;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p == null) continue;
+                if (p == Piece.WHITE_KING) wk = r * 8 + c;
+                else if (p == Piece.BLACK_KING) bk = r * 8 + c;
+                else {
+                    whiteStrong = p.isWhite();
+                    if (p == Piece.WHITE_BISHOP || p == Piece.BLACK_BISHOP) bishop = r * 8 + c;
+                }
+            }
+        }
+        int weak = whiteStrong ? bk : wk;
+        int wr = weak >> 3, wc = weak & 7;
+        int edge = Math.max(3 - wr, wr - 4) + Math.max(3 - wc, wc - 4);
+        int kings = Math.abs((wk >> 3) - (bk >> 3)) + Math.abs((wk & 7) - (bk & 7));
+        int bonus = 10 * edge + 4 * (14 - kings);
+        if (bishop >= 0) {
+            // cantos a1/h8 são casas escuras; a8/h1 claras
+            boolean dark = ((bishop >> 3) + (bishop & 7)) % 2 == 0;
+            int corner = dark ? Math.min(wr + wc, 14 - wr - wc)
+                              : Math.min(wr + 7 - wc, 7 - wr + wc);
+            bonus += 20 * (7 - corner);
+        }
+        return bonus;
+    }
+
+    private static char type(Piece p) {
+        return Character.toUpperCase(p.getSymbol());
+    }
+
+    private void read(Path cache) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+            if (in.readInt() != MAGIC) throw new IOException("cabeçalho inválido");
+            int count = in.readInt();
+            for (int t = 0; t < count; t++) {
+                String name = in.readUTF();
+                int length = in.readInt();
+                // o nome tem uma letra por casa do índice (KQK = 3 casas)
+                if (length != BitbaseGenerator.size(name.length()) >>> 6) {
+                    throw new IOException("tamanho inválido para " + name);
+                }
+                long[] bits = new long[length];
+                for (int i = 0; i < length; i++) bits[i] = in.readLong();
+                tables.put(name, bits);
+            }
+        }
+    }
+
+    private void write(Path cache) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(cache)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(tables.size());
+            for (Map.Entry<String, long[]> e : tables.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue().length);
+                for (long v : e.getValue()) out.writeLong(v);
+            }
+        }
+    }
+}
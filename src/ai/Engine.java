@@ -0,0 +1,34 @@
+package ai;
+
+import Jogo.Board;
+
+/**
+ * Interface comum dos motores: qualquer um pode ser escolhido pelo nome em
+ * {@link Engines}, jogar em {@code app.Main} ou rodar no benchmark com os
+ * mesmos limites. O lado a jogar vem do próprio tabuleiro.
+ */
+public interface Engine {
+    /** Nome usado no registro e nos relatórios. */
+    String getName();
+
+    /** Busca o melhor lance da posição dentro dos limites do pedido. */
+    EngineResult search(Board board, SearchRequest request);
+
+    /** Esquece o estado da partida anterior (tabela de transposição etc.). */
+    default void newGame() {}
+
+    /** Bitbases de finais; motores sem suporte ignoram. */
+    default void setBitbases(EndgameBitbases bitbases) {}
+
+    /** Valores de peça e PST ajustados (app.Tuner); motores sem suporte ignoram. */
+    default void setEvalParams(EvalParams params) {}
+
+    /** Liga ou desliga as mensagens impressas durante a busca. */
+    default void setQuiet(boolean quiet) {}
+
+    /** Termo de mobilidade e espaço na avaliação; motores sem suporte ignoram. */
+    default void setMobility(boolean enabled) {}
+
+    /** Rede NNUE para a avaliação; motores sem suporte ignoram. */
+    default void setNetwork(Nnue network) {}
+}
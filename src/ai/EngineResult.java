@@ -0,0 +1,61 @@
+package ai;
+
+import Jogo.Move;
+
+import java.util.List;
+
+/**
+ * Resultado de {@link Engine#search}: melhor lance, score (perspectiva das
+ * brancas), profundidade completada, nós visitados e variante principal.
+ * Motores que não informam score, profundidade ou nós devolvem 0.
+ *
+ * Escala comum dos scores: mate é ±{@value #MATE_SCORE} mais a profundidade
+ * restante, vitória provada pelos bitbases é ±{@value #BITBASE_WIN} mais a
+ * avaliação. Acima de {@value #DECIDED_SCORE} em módulo a partida está
+ * decidida e o número não é uma avaliação em centipeões.
+ */
+public class EngineResult {
+    public static final int MATE_SCORE = 100_000_000;
+    public static final int BITBASE_WIN = 50_000;     // vitória provada, abaixo de qualquer mate
+    public static final int DECIDED_SCORE = BITBASE_WIN / 2;
+    private static final int MATE_BOUND = MATE_SCORE / 2;
+
+    private final Move move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final List<Move> pv;
+
+    public EngineResult(Move move, int score, int depth, long nodes, List<Move> pv) {
+        this.move  = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.pv    = List.copyOf(pv);
+    }
+
+    /** Resultado só com o lance, para motores que não expõem a busca. */
+    static EngineResult ofMove(Move move) {
+        return new EngineResult(move, 0, 0, 0, move == null ? List.of() : List.of(move));
+    }
+
+    public Move getMove()     { return move;  }
+    public int getScore()     { return score; }
+    public int getDepth()     { return depth; }
+    public long getNodes()    { return nodes; }
+    public List<Move> getPv() { return pv;    }
+
+    /** Mate ou vitória provada pelos bitbases, para qualquer lado. */
+    public static boolean isDecided(int score) {
+        return Math.abs(score) >= DECIDED_SCORE;
+    }
+
+    public static boolean isMate(int score) {
+        return Math.abs(score) >= MATE_BOUND;
+    }
+
+    @Override
+    public String toString() {
+        return move + " depth " + depth + " score " + score + " nodes " + nodes + " pv " + pv;
+    }
+}
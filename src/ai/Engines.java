@@ -0,0 +1,38 @@
+package ai;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** Registro dos motores por nome; cada chamada a {@link #create} devolve uma instância nova. */
+public final class Engines {
+    private static final Map<String, Supplier<Engine>> REGISTRY = new LinkedHashMap<>();
+
+    static {
+        register("SearchEngine",  SearchEngine::new);
+        register("AlphaBeta",     AlphaBeta::new);
+        register("AlphaBetaB",    AlphaBetaB::new);
+        register("AlphaBetaC",    AlphaBetaC::new);
+        register("AlphaBetaC2",   AlphaBetaC2::new);
+        register("BetterSquares", BetterSquares::new);
+    }
+
+    private Engines() {}
+
+    public static synchronized void register(String name, Supplier<Engine> factory) {
+        REGISTRY.put(name, factory);
+    }
+
+    public static synchronized Engine create(String name) {
+        Supplier<Engine> factory = REGISTRY.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("Motor desconhecido: " + name + " (disponíveis: " + names() + ")");
+        }
+        return factory.get();
+    }
+
+    public static synchronized List<String> names() {
+        return List.copyOf(REGISTRY.keySet());
+    }
+}
@@ -0,0 +1,59 @@
+package ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de avaliação estática (hash da posição → score) para colocar na
+ * frente de qualquer avaliador. Sem travas: cada entrada guarda o score e
+ * a chave com XOR do score, então uma leitura concorrente misturada com
+ * uma escrita não bate com a chave e vira só um erro de cache.
+ */
+public class EvalCache {
+    /** Devolvido por {@link #probe} quando a posição não está no cache. */
+    public static final int MISS = Integer.MIN_VALUE;
+
+    private final long[] table;   // [2i] = chave ^ dados, [2i + 1] = dados
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** @param entries arredondado para potência de 2 */
+    public EvalCache(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        table = new long[2 * size];
+        mask = size - 1;
+    }
+
+    public int probe(long key) {
+        int i = ((int) key & mask) << 1;
+        long data = table[i + 1];
+        if ((table[i] ^ data) == key && data != 0) {
+            hits.increment();
+            return (int) data;
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    public void store(long key, int eval) {
+        int i = ((int) key & mask) << 1;
+        // bit 32 marca entrada ocupada, para o score 0 não parecer vazio
+        long data = (eval & 0xFFFFFFFFL) | (1L << 32);
+        table[i] = key ^ data;
+        table[i + 1] = data;
+    }
+
+    /** Número de entradas. */
+    public int size() {
+        return mask + 1;
+    }
+
+    public long getHits()   { return hits.sum();   }
+    public long getMisses() { return misses.sum(); }
+
+    /** Acertos sobre consultas, em porcentagem. */
+    public double hitRate() {
+        long h = getHits(), total = h + getMisses();
+        return total == 0 ? 0 : 100.0 * h / total;
+    }
+}
@@ -0,0 +1,127 @@
+package ai;
+
+import Jogo.PstSet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Valores de peça e tabelas peça-casa (meio-jogo e final) de uma avaliação
+ * material + PST, no mesmo formato das tabelas do {@link BetterSquares}:
+ * arrays por tipo na ordem K, Q, R, B, N, P e tabelas [linha][coluna] do
+ * ponto de vista das brancas (linha 0 = 1ª fila).
+ *
+ * <p>Arquivo texto, gerado pelo {@code app.Tuner}: linhas com # são
+ * comentários; "VALUE_MG" e "VALUE_EG" seguidos de 6 números, e
+ * "PST_MG t" / "PST_EG t" (t de 0 a 5) seguidos de 64 números.
+ */
+public final class EvalParams {
+    private static final String[] TYPES = { "K", "Q", "R", "B", "N", "P" };
+
+    private final int[] valueMg = new int[6];
+    private final int[] valueEg = new int[6];
+    private final int[][][] pstMg = new int[6][8][8];
+    private final int[][][] pstEg = new int[6][8][8];
+
+    /** Copia os arrays dados. */
+    public EvalParams(int[] valueMg, int[] valueEg, int[][][] pstMg, int[][][] pstEg) {
+        System.arraycopy(valueMg, 0, this.valueMg, 0, 6);
+        System.arraycopy(valueEg, 0, this.valueEg, 0, 6);
+        for (int t = 0; t < 6; t++) {
+            for (int r = 0; r < 8; r++) {
+                System.arraycopy(pstMg[t][r], 0, this.pstMg[t][r], 0, 8);
+                System.arraycopy(pstEg[t][r], 0, this.pstEg[t][r], 0, 8);
+            }
+        }
+    }
+
+    public int valueMg(int type)                { return valueMg[type];       }
+    public int valueEg(int type)                { return valueEg[type];       }
+    public int pstMg(int type, int row, int col) { return pstMg[type][row][col]; }
+    public int pstEg(int type, int row, int col) { return pstEg[type][row][col]; }
+
+    public PstSet toPstSet() {
+        return new PstSet(valueMg, valueEg, pstMg, pstEg);
+    }
+
+    public static EvalParams load(Path file) {
+        List<String> tokens = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                int hash = line.indexOf('#');
+                if (hash >= 0) line = line.substring(0, hash);
+                for (String tok : line.trim().split("\\s+")) {
+                    if (!tok.isEmpty()) tokens.add(tok);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler parâmetros " + file, e);
+        }
+        int[] valueMg = null, valueEg = null;
+        int[][][] pstMg = new int[6][][], pstEg = new int[6][][];
+        try {
+            for (int i = 0; i < tokens.size(); ) {
+                String key = tokens.get(i++);
+                switch (key) {
+                    case "VALUE_MG", "VALUE_EG" -> {
+                        int[] v = new int[6];
+                        for (int t = 0; t < 6; t++) v[t] = Integer.parseInt(tokens.get(i++));
+                        if (key.equals("VALUE_MG")) valueMg = v; else valueEg = v;
+                    }
+                    case "PST_MG", "PST_EG" -> {
+                        int t = Integer.parseInt(tokens.get(i++));
+                        int[][] table = new int[8][8];
+                        for (int sq = 0; sq < 64; sq++) table[sq >> 3][sq & 7] = Integer.parseInt(tokens.get(i++));
+                        (key.equals("PST_MG") ? pstMg : pstEg)[t] = table;
+                    }
+                    default -> throw new IllegalArgumentException("Chave desconhecida: " + key);
+                }
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Arquivo de parâmetros inválido: " + file, e);
+        }
+        if (valueMg == null || valueEg == null) {
+            throw new IllegalArgumentException("Arquivo de parâmetros sem VALUE_MG/VALUE_EG: " + file);
+        }
+        for (int t = 0; t < 6; t++) {
+            if (pstMg[t] == null || pstEg[t] == null) {
+                throw new IllegalArgumentException("Arquivo de parâmetros sem a tabela do tipo " + t + ": " + file);
+            }
+        }
+        return new EvalParams(valueMg, valueEg, pstMg, pstEg);
+    }
+
+    /** Grava no formato lido por {@link #load}; {@code comment} vai no cabeçalho. */
+    public void save(Path file, String comment) {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("# " + comment + "\n");
+            out.write("# tipos: 0=K 1=Q 2=R 3=B 4=N 5=P; tabelas com a 1ª fila das brancas em cima\n");
+            writeValues(out, "VALUE_MG", valueMg);
+            writeValues(out, "VALUE_EG", valueEg);
+            for (int t = 0; t < 6; t++) writeTable(out, "PST_MG", t, pstMg[t]);
+            for (int t = 0; t < 6; t++) writeTable(out, "PST_EG", t, pstEg[t]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar parâmetros " + file, e);
+        }
+    }
+
+    private static void writeValues(BufferedWriter out, String key, int[] v) throws IOException {
+        out.write(key);
+        for (int x : v) out.write(" " + x);
+        out.write("\n");
+    }
+
+    private static void writeTable(BufferedWriter out, String key, int t, int[][] table) throws IOException {
+        out.write("\n" + key + " " + t + "   # " + TYPES[t] + "\n");
+        for (int[] row : table) {
+            StringBuilder sb = new StringBuilder();
+            for (int x : row) sb.append(String.format("%5d", x));
+            out.write(sb.append('\n').toString());
+        }
+    }
+}
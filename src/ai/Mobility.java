@@ -0,0 +1,67 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Piece;
+
+/**
+ * Mobilidade e espaço pelos bitboards do {@link Board} e pelas tabelas de
+ * {@link Attacks}, sem gerar lances nem copiar o tabuleiro. Cada cavalo,
+ * bispo, torre e dama conta as casas que ataca fora das próprias peças e
+ * das casas atacadas por peões adversários; o espaço conta as casas
+ * centrais do próprio campo livres de peões e de ataques de peão.
+ * Scores da perspectiva das brancas, em meio-jogo e final.
+ */
+final class Mobility {
+    // bônus por casa acima (ou abaixo) da mobilidade típica de cada peça
+    private static final int KNIGHT_MG = 4, KNIGHT_EG = 4, KNIGHT_TYPICAL = 4;
+    private static final int BISHOP_MG = 5, BISHOP_EG = 5, BISHOP_TYPICAL = 6;
+    private static final int ROOK_MG   = 2, ROOK_EG   = 4, ROOK_TYPICAL   = 7;
+    private static final int QUEEN_MG  = 1, QUEEN_EG  = 2, QUEEN_TYPICAL  = 13;
+    private static final int SPACE_MG  = 2;
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    // colunas c-f, filas 2-4 das brancas e 5-7 das pretas
+    private static final long WHITE_SPACE = 0x3C3C3C00L;
+    private static final long BLACK_SPACE = 0x003C3C3C00000000L;
+
+    private int mg, eg;
+
+    /** Calcula os termos do tabuleiro; leia com {@link #mg()} e {@link #eg()}. */
+    void evaluate(Board board) {
+        long white = board.getOccupied(true), black = board.getOccupied(false);
+        long occupied = white | black;
+        long whitePawns = board.getBitboard(Piece.WHITE_PAWN);
+        long blackPawns = board.getBitboard(Piece.BLACK_PAWN);
+        long whitePawnAttacks = ((whitePawns & ~FILE_A) << 7) | ((whitePawns & ~FILE_H) << 9);
+        long blackPawnAttacks = ((blackPawns & ~FILE_H) >>> 7) | ((blackPawns & ~FILE_A) >>> 9);
+
+        mg = eg = 0;
+        side(board, true, occupied, ~(white | blackPawnAttacks), 1);
+        side(board, false, occupied, ~(black | whitePawnAttacks), -1);
+
+        mg += SPACE_MG * (Long.bitCount(WHITE_SPACE & ~whitePawns & ~blackPawnAttacks)
+                - Long.bitCount(BLACK_SPACE & ~blackPawns & ~whitePawnAttacks));
+    }
+
+    int mg() { return mg; }
+    int eg() { return eg; }
+
+    private void side(Board board, boolean white, long occupied, long area, int sign) {
+        int n = 0, b = 0, r = 0, q = 0;
+        for (long bb = board.getBitboard(white ? Piece.WHITE_KNIGHT : Piece.BLACK_KNIGHT); bb != 0; bb &= bb - 1) {
+            n += Long.bitCount(Attacks.KNIGHT[Long.numberOfTrailingZeros(bb)] & area) - KNIGHT_TYPICAL;
+        }
+        for (long bb = board.getBitboard(white ? Piece.WHITE_BISHOP : Piece.BLACK_BISHOP); bb != 0; bb &= bb - 1) {
+            b += Long.bitCount(Attacks.bishop(Long.numberOfTrailingZeros(bb), occupied) & area) - BISHOP_TYPICAL;
+        }
+        for (long bb = board.getBitboard(white ? Piece.WHITE_ROOK : Piece.BLACK_ROOK); bb != 0; bb &= bb - 1) {
+            r += Long.bitCount(Attacks.rook(Long.numberOfTrailingZeros(bb), occupied) & area) - ROOK_TYPICAL;
+        }
+        for (long bb = board.getBitboard(white ? Piece.WHITE_QUEEN : Piece.BLACK_QUEEN); bb != 0; bb &= bb - 1) {
+            q += Long.bitCount(Attacks.queen(Long.numberOfTrailingZeros(bb), occupied) & area) - QUEEN_TYPICAL;
+        }
+        mg += sign * (n * KNIGHT_MG + b * BISHOP_MG + r * ROOK_MG + q * QUEEN_MG);
+        eg += sign * (n * KNIGHT_EG + b * BISHOP_EG + r * ROOK_EG + q * QUEEN_EG);
+    }
+}
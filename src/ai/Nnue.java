@@ -0,0 +1,137 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.NnueFeatures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Avaliação por rede NNUE: a camada de entrada HalfKP ({@link NnueFeatures})
+ * fica nos acumuladores int16 que o {@link Board} atualiza a cada lance, e
+ * aqui só rodam as camadas densas pequenas (pesos int8, somas int32,
+ * ClippedReLU em 0..127), com o acumulador do lado a jogar primeiro.
+ *
+ * <p>Arquivo (big-endian): magia "NNUE", versão, neurônios do acumulador,
+ * tamanhos das duas camadas ocultas; depois bias e pesos de cada camada
+ * na ordem da rede, pesos em linha por neurônio de saída.
+ */
+public class Nnue {
+    private static final int MAGIC = 0x4E4E5545;   // "NNUE"
+    private static final int VERSION = 1;
+    private static final int SHIFT = 6;            // escala dos pesos int8 (64 = 1.0)
+    private static final int OUTPUT_SCALE = 16;    // saída / 16 = centipeões
+
+    private final NnueFeatures features;
+    private final int hidden, l1, l2;
+    private final int[] l1Bias, l2Bias;
+    private final byte[] l1Weights, l2Weights;    // [saída * entradas + entrada]
+    private final int outBias;
+    private final byte[] outWeights;
+    private final ThreadLocal<int[]> scratch;
+
+    public Nnue(NnueFeatures features, int[] l1Bias, byte[] l1Weights,
+                int[] l2Bias, byte[] l2Weights, int outBias, byte[] outWeights) {
+        this.features = features;
+        this.hidden = features.getHidden();
+        this.l1 = l1Bias.length;
+        this.l2 = l2Bias.length;
+        if (l1Weights.length != l1 * 2 * hidden || l2Weights.length != l2 * l1 || outWeights.length != l2) {
+            throw new IllegalArgumentException("Camadas NNUE com tamanhos incompatíveis");
+        }
+        this.l1Bias = l1Bias;
+        this.l1Weights = l1Weights;
+        this.l2Bias = l2Bias;
+        this.l2Weights = l2Weights;
+        this.outBias = outBias;
+        this.outWeights = outWeights;
+        // entrada (2 × acumulador) e as duas camadas ocultas, um buffer por thread
+        this.scratch = ThreadLocal.withInitial(() -> new int[2 * hidden + l1 + l2]);
+    }
+
+    public static Nnue load(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IllegalArgumentException("Arquivo NNUE inválido: " + file);
+            }
+            int hidden = buf.getInt(), l1 = buf.getInt(), l2 = buf.getInt();
+            short[] ftBias = shorts(buf, hidden);
+            short[] ftWeights = shorts(buf, NnueFeatures.FEATURES * hidden);
+            int[] l1Bias = ints(buf, l1);
+            byte[] l1Weights = bytes(buf, l1 * 2 * hidden);
+            int[] l2Bias = ints(buf, l2);
+            byte[] l2Weights = bytes(buf, l2 * l1);
+            int outBias = buf.getInt();
+            byte[] outWeights = bytes(buf, l2);
+            return new Nnue(new NnueFeatures(hidden, ftBias, ftWeights),
+                    l1Bias, l1Weights, l2Bias, l2Weights, outBias, outWeights);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler rede " + file, e);
+        }
+    }
+
+    private static short[] shorts(ByteBuffer buf, int n) {
+        short[] a = new short[n];
+        buf.asShortBuffer().get(a);
+        buf.position(buf.position() + 2 * n);
+        return a;
+    }
+
+    private static int[] ints(ByteBuffer buf, int n) {
+        int[] a = new int[n];
+        buf.asIntBuffer().get(a);
+        buf.position(buf.position() + 4 * n);
+        return a;
+    }
+
+    private static byte[] bytes(ByteBuffer buf, int n) {
+        byte[] a = new byte[n];
+        buf.get(a);
+        return a;
+    }
+
+    /** Camada de entrada, para {@link Board#setNnue}. */
+    public NnueFeatures getFeatures() {
+        return features;
+    }
+
+    /** Avaliação em centipeões, do ponto de vista das brancas. */
+    public int evaluate(Board board) {
+        if (board.getNnue() != features) {
+            board = new Board(board);
+            board.setNnue(features);
+        }
+        boolean white = board.isWhiteToMove();
+        int[] x = scratch.get();
+        clip(board.getAccumulator(white), x, 0);
+        clip(board.getAccumulator(!white), x, hidden);
+        int h1 = 2 * hidden, h2 = h1 + l1;
+        dense(x, 0, h1, l1Bias, l1Weights, x, h1, l1);
+        dense(x, h1, l1, l2Bias, l2Weights, x, h2, l2);
+
+        int sum = outBias;
+        for (int i = 0; i < l2; i++) sum += outWeights[i] * x[h2 + i];
+        int score = sum / OUTPUT_SCALE;
+        return white ? score : -score;
+    }
+
+    private void clip(short[] acc, int[] x, int offset) {
+        for (int i = 0; i < hidden; i++) x[offset + i] = Math.min(Math.max(acc[i], 0), 127);
+    }
+
+    /** Camada densa int8 com ClippedReLU; laços simples que o JIT vetoriza. */
+    private static void dense(int[] in, int inOffset, int inSize, int[] bias, byte[] weights,
+                              int[] out, int outOffset, int outSize) {
+        for (int o = 0; o < outSize; o++) {
+            int sum = bias[o];
+            int base = o * inSize;
+            for (int i = 0; i < inSize; i++) sum += weights[base + i] * in[inOffset + i];
+            out[outOffset + o] = Math.min(Math.max(sum >> SHIFT, 0), 127);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de estrutura de peões indexada pelo hash só dos peões do
+ * {@link Board}. Guarda, por estrutura, os scores de meio-jogo e final
+ * (perspectiva das brancas) dos peões dobrados, isolados, atrasados e
+ * passados, e as máscaras dos peões passados de cada lado. A estrutura
+ * quase não muda entre nós vizinhos, então quase toda consulta é acerto.
+ */
+final class PawnTable {
+    private static final int DOUBLED_MG  = -10, DOUBLED_EG  = -20;
+    private static final int ISOLATED_MG = -10, ISOLATED_EG = -15;
+    private static final int BACKWARD_MG = -8,  BACKWARD_EG = -10;
+    // bônus do peão passado pela fila relativa (0 = 1ª fila)
+    private static final int[] PASSED_MG = { 0, 5, 10, 15, 25, 40, 60, 0 };
+    private static final int[] PASSED_EG = { 0, 10, 20, 35, 55, 85, 120, 0 };
+
+    private static final long[] FILE = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[] WHITE_PASSED_SPAN = new long[64];  // casas à frente, colunas vizinhas incluídas
+    private static final long[] BLACK_PASSED_SPAN = new long[64];
+    private static final long[] WHITE_SUPPORT = new long[64];      // colunas vizinhas, mesma fila ou atrás
+    private static final long[] BLACK_SUPPORT = new long[64];
+
+    static {
+        for (int c = 0; c < 8; c++) {
+            for (int r = 0; r < 8; r++) FILE[c] |= 1L << (r * 8 + c);
+        }
+        for (int c = 0; c < 8; c++) {
+            ADJACENT_FILES[c] = (c > 0 ? FILE[c - 1] : 0) | (c < 7 ? FILE[c + 1] : 0);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >> 3, c = sq & 7;
+            long span = FILE[c] | ADJACENT_FILES[c];
+            for (int r2 = 0; r2 < 8; r2++) {
+                long rank = 0xFFL << (r2 * 8);
+                if (r2 > r) WHITE_PASSED_SPAN[sq] |= span & rank;
+                if (r2 < r) BLACK_PASSED_SPAN[sq] |= span & rank;
+                if (r2 <= r) WHITE_SUPPORT[sq] |= ADJACENT_FILES[c] & rank;
+                if (r2 >= r) BLACK_SUPPORT[sq] |= ADJACENT_FILES[c] & rank;
+            }
+        }
+    }
+
+    private final long[] keys;
+    private final int[] mg;
+    private final int[] eg;
+    private final long[] passedWhite;
+    private final long[] passedBlack;
+    private final int mask;
+    private long hits, misses;
+
+    /** @param entries arredondado para potência de 2 */
+    PawnTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        mg = new int[size];
+        eg = new int[size];
+        passedWhite = new long[size];
+        passedBlack = new long[size];
+        mask = size - 1;
+        Arrays.fill(keys, -1L);   // vazio; 0 é o hash legítimo de "sem peões"
+    }
+
+    /** Entrada da estrutura de peões do tabuleiro, calculada se não estiver na tabela. */
+    int probe(Board board) {
+        long key = board.getPawnHash();
+        int i = (int) key & mask;
+        if (keys[i] == key) {
+            hits++;
+            return i;
+        }
+        misses++;
+        keys[i] = key;
+        fill(board, i);
+        return i;
+    }
+
+    int mg(int entry) { return mg[entry]; }
+    int eg(int entry) { return eg[entry]; }
+
+    long passed(int entry, boolean white) {
+        return white ? passedWhite[entry] : passedBlack[entry];
+    }
+
+    long getHits()   { return hits;   }
+    long getMisses() { return misses; }
+
+    private void fill(Board board, int i) {
+        long white = 0, black = 0;
+        for (int r = 1; r < 7; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p == Piece.WHITE_PAWN) white |= 1L << (r * 8 + c);
+                else if (p == Piece.BLACK_PAWN) black |= 1L << (r * 8 + c);
+            }
+        }
+        int mgScore = 0, egScore = 0;
+        long whitePassed = 0, blackPassed = 0;
+
+        for (long b = white; b != 0; b &= b - 1) {
+            int sq = Long.numberOfTrailingZeros(b);
+            int r = sq >> 3, c = sq & 7;
+            boolean isolated = (white & ADJACENT_FILES[c]) == 0;
+            boolean passed = (black & WHITE_PASSED_SPAN[sq]) == 0 && (white & FILE[c] & WHITE_PASSED_SPAN[sq]) == 0;
+            if ((white & FILE[c] & WHITE_PASSED_SPAN[sq]) != 0) { mgScore += DOUBLED_MG; egScore += DOUBLED_EG; }
+            if (isolated) { mgScore += ISOLATED_MG; egScore += ISOLATED_EG; }
+            if (passed) {
+                whitePassed |= 1L << sq;
+                mgScore += PASSED_MG[r];
+                egScore += PASSED_EG[r];
+            } else if (!isolated && (white & WHITE_SUPPORT[sq]) == 0
+                    && (Attacks.WHITE_PAWN[sq + 8] & black) != 0) {
+                // atrasado: sem apoio dos vizinhos e a casa da frente é atacada por peão
+                mgScore += BACKWARD_MG;
+                egScore += BACKWARD_EG;
+            }
+        }
+        for (long b = black; b != 0; b &= b - 1) {
+            int sq = Long.numberOfTrailingZeros(b);
+            int r = sq >> 3, c = sq & 7;
+            boolean isolated = (black & ADJACENT_FILES[c]) == 0;
+            boolean passed = (white & BLACK_PASSED_SPAN[sq]) == 0 && (black & FILE[c] & BLACK_PASSED_SPAN[sq]) == 0;
+            if ((black & FILE[c] & BLACK_PASSED_SPAN[sq]) != 0) { mgScore -= DOUBLED_MG; egScore -= DOUBLED_EG; }
+            if (isolated) { mgScore -= ISOLATED_MG; egScore -= ISOLATED_EG; }
+            if (passed) {
+                blackPassed |= 1L << sq;
+                mgScore -= PASSED_MG[7 - r];
+                egScore -= PASSED_EG[7 - r];
+            } else if (!isolated && (black & BLACK_SUPPORT[sq]) == 0
+                    && (Attacks.BLACK_PAWN[sq - 8] & white) != 0) {
+                mgScore -= BACKWARD_MG;
+                egScore -= BACKWARD_EG;
+            }
+        }
+        mg[i] = mgScore;
+        eg[i] = egScore;
+        passedWhite[i] = whitePassed;
+        passedBlack[i] = blackPassed;
+    }
+}
@@ -0,0 +1,143 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Move;
+import Jogo.Piece;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Livro de aberturas Polyglot (.bin) mapeado em memória. O arquivo é uma
+ * sequência ordenada de entradas de 16 bytes big-endian (chave, lance,
+ * peso, learn); as entradas de uma posição são achadas por busca binária
+ * na chave e convertidas para lances legais do {@link Board}.
+ */
+public class PolyglotBook {
+    private static final int ENTRY = 16;
+    private static final String PROMOTIONS = " nbrq";
+
+    private final MappedByteBuffer data;
+    private final int entries;
+    private final PolyglotKeys keys;
+    private final MoveGenerator gen = new MoveGenerator();
+
+    private PolyglotBook(MappedByteBuffer data, PolyglotKeys keys) {
+        this.data = data;
+        this.entries = data.capacity() / ENTRY;
+        this.keys = keys;
+    }
+
+    public static PolyglotBook open(Path file, PolyglotKeys keys) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PolyglotBook(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), keys);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir livro " + file, e);
+        }
+    }
+
+    /** Número de entradas do livro. */
+    public int size() {
+        return entries;
+    }
+
+    /** @return lance de maior peso para a posição, ou null fora do livro */
+    public Move bestMove(Board board) {
+        List<Move> moves = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        lookup(board, moves, weights);
+        Move best = null;
+        int bestWeight = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (weights.get(i) > bestWeight) {
+                bestWeight = weights.get(i);
+                best = moves.get(i);
+            }
+        }
+        return best;
+    }
+
+    /** @return lance sorteado proporcionalmente ao peso, ou null fora do livro */
+    public Move weightedMove(Board board, Random random) {
+        List<Move> moves = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        lookup(board, moves, weights);
+        int total = 0;
+        for (int w : weights) total += w;
+        if (total == 0) return null;
+        int pick = random.nextInt(total);
+        for (int i = 0; i < moves.size(); i++) {
+            pick -= weights.get(i);
+            if (pick < 0) return moves.get(i);
+        }
+        return null;
+    }
+
+    /** Lances legais do livro para a posição, com seus pesos. */
+    private void lookup(Board board, List<Move> moves, List<Integer> weights) {
+        long key = keys.hash(board);
+        List<Move> legal = gen.generateLegalMoves(board, board.isWhiteToMove());
+        for (int i = lowerBound(key); i < entries && data.getLong(i * ENTRY) == key; i++) {
+            Move m = toMove(board, data.getShort(i * ENTRY + 8) & 0xFFFF, legal);
+            if (m != null) {
+                moves.add(m);
+                weights.add(data.getShort(i * ENTRY + 10) & 0xFFFF);
+            }
+        }
+    }
+
+    /** Primeira entrada com chave >= {@code key} (chaves comparadas sem sinal). */
+    private int lowerBound(long key) {
+        int lo = 0, hi = entries;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(data.getLong(mid * ENTRY), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Codifica um lance legal no formato Polyglot (roque como e1h1). */
+    public static int encodeMove(Board board, Move m) {
+        int toCol = m.getToCol();
+        Piece p = board.getPiece(m.getFromRow(), m.getFromCol());
+        if ((p == Piece.WHITE_KING || p == Piece.BLACK_KING) && Math.abs(toCol - m.getFromCol()) == 2) {
+            toCol = toCol == 6 ? 7 : 0;
+        }
+        int promo = m.getPromotion() == null ? 0
+                : PROMOTIONS.indexOf(Character.toLowerCase(m.getPromotion().getSymbol()));
+        return toCol | (m.getToRow() << 3) | (m.getFromCol() << 6) | (m.getFromRow() << 9) | (promo << 12);
+    }
+
+    /**
+     * Lance Polyglot: destino (bits 0-5), origem (6-11), promoção (12-14).
+     * Roques vêm como rei captura torre (e1h1) e viram e1g1.
+     */
+    private static Move toMove(Board board, int raw, List<Move> legal) {
+        int toCol = raw & 7, toRow = (raw >> 3) & 7;
+        int fromCol = (raw >> 6) & 7, fromRow = (raw >> 9) & 7;
+        int promo = (raw >> 12) & 7;
+        Piece p = board.getPiece(fromRow, fromCol);
+        if ((p == Piece.WHITE_KING || p == Piece.BLACK_KING) && fromCol == 4 && toRow == fromRow) {
+            if (toCol == 7) toCol = 6;
+            else if (toCol == 0) toCol = 2;
+        }
+        for (Move m : legal) {
+            if (m.getFromRow() != fromRow || m.getFromCol() != fromCol
+                    || m.getToRow() != toRow || m.getToCol() != toCol) continue;
+            Piece promotion = m.getPromotion();
+            if (promo == 0 ? promotion == null
+                    : promotion != null && Character.toLowerCase(promotion.getSymbol()) == PROMOTIONS.charAt(promo)) {
+                return m;
+            }
+        }
+        return null;
+    }
+}
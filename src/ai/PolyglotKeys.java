@@ -0,0 +1,97 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Piece;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hash Polyglot de um {@link Board}, compatível com livros .bin. Os 781
+ * números Random64 do formato são lidos de um arquivo (qualquer texto com
+ * os valores em hexadecimal "0x...", como o array do código do Polyglot) e
+ * conferidos pela chave conhecida da posição inicial.
+ *
+ * Deslocamentos: peça * 64 + linha * 8 + coluna (peças bp=0, wp=1, bn=2,
+ * ..., wk=11), roque 768-771, en passant 772-779, vez das brancas 780.
+ */
+public final class PolyglotKeys {
+    public static final long START_KEY = 0x463b96181691fc9cL;
+
+    private static final int CASTLE = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN = 780;
+    private static final int COUNT = 781;
+    private static final Pattern HEX = Pattern.compile("0x([0-9a-fA-F]{16})");
+
+    private final long[] random;
+
+    private PolyglotKeys(long[] random) {
+        this.random = random;
+    }
+
+    public static PolyglotKeys load(Path file) {
+        long[] random = new long[COUNT];
+        int n = 0;
+        try {
+            Matcher m = HEX.matcher(Files.readString(file));
+            while (n < COUNT && m.find()) {
+                random[n++] = Long.parseUnsignedLong(m.group(1), 16);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + file, e);
+        }
+        if (n < COUNT) {
+            throw new IllegalArgumentException(file + ": esperados " + COUNT + " valores, lidos " + n);
+        }
+        PolyglotKeys keys = new PolyglotKeys(random);
+        if (keys.hash(new Board()) != START_KEY) {
+            throw new IllegalArgumentException(file + ": valores não batem com a chave da posição inicial");
+        }
+        return keys;
+    }
+
+    public long hash(Board board) {
+        long key = 0;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p != null) key ^= random[64 * kind(p) + 8 * r + c];
+            }
+        }
+        if (board.canWhiteCastleKing())  key ^= random[CASTLE];
+        if (board.canWhiteCastleQueen()) key ^= random[CASTLE + 1];
+        if (board.canBlackCastleKing())  key ^= random[CASTLE + 2];
+        if (board.canBlackCastleQueen()) key ^= random[CASTLE + 3];
+        if (enPassantCapturable(board))  key ^= random[EN_PASSANT + board.getEnPassantCol()];
+        if (board.isWhiteToMove())       key ^= random[TURN];
+        return key;
+    }
+
+    /** Polyglot só conta o en passant se houver peão do lado a jogar ao lado do peão que avançou. */
+    private static boolean enPassantCapturable(Board board) {
+        if (board.getEnPassantRow() < 0) return false;
+        boolean white = board.isWhiteToMove();
+        int row = white ? 4 : 3;
+        Piece pawn = white ? Piece.WHITE_PAWN : Piece.BLACK_PAWN;
+        int col = board.getEnPassantCol();
+        return (col > 0 && board.getPiece(row, col - 1) == pawn)
+            || (col < 7 && board.getPiece(row, col + 1) == pawn);
+    }
+
+    private static int kind(Piece p) {
+        int type = switch (p) {
+            case WHITE_PAWN,   BLACK_PAWN   -> 0;
+            case WHITE_KNIGHT, BLACK_KNIGHT -> 1;
+            case WHITE_BISHOP, BLACK_BISHOP -> 2;
+            case WHITE_ROOK,   BLACK_ROOK   -> 3;
+            case WHITE_QUEEN,  BLACK_QUEEN  -> 4;
+            case WHITE_KING,   BLACK_KING   -> 5;
+        };
+        return 2 * type + (p.isWhite() ? 1 : 0);
+    }
+}
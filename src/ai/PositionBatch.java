@@ -0,0 +1,59 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Lote de posições em estrutura de arrays: um array de bitboards por tipo
+ * de peça, indexado pela posição (casa = linha * 8 + coluna). Só guarda o
+ * que a avaliação em lote lê; o lado a jogar fica num array à parte.
+ */
+public final class PositionBatch {
+    final long[][] pieces;       // [Piece.ordinal()][posição]
+    final boolean[] whiteToMove;
+    private int size;
+
+    public PositionBatch(int capacity) {
+        pieces = new long[Piece.values().length][capacity];
+        whiteToMove = new boolean[capacity];
+    }
+
+    /** Acrescenta a posição do tabuleiro; devolve o índice dela no lote. */
+    public int add(Board board) {
+        if (size == whiteToMove.length) {
+            throw new IllegalStateException("Lote cheio: " + size + " posições");
+        }
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p != null) pieces[p.ordinal()][size] |= 1L << (r * 8 + c);
+            }
+        }
+        whiteToMove[size] = board.isWhiteToMove();
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return whiteToMove.length;
+    }
+
+    public long getBitboard(Piece p, int index) {
+        return pieces[p.ordinal()][index];
+    }
+
+    public boolean isWhiteToMove(int index) {
+        return whiteToMove[index];
+    }
+
+    /** Esvazia o lote para reaproveitar os arrays. */
+    public void clear() {
+        for (long[] bb : pieces) Arrays.fill(bb, 0, size, 0L);
+        size = 0;
+    }
+}
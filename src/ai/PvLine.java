@@ -0,0 +1,33 @@
+package ai;
+
+import Jogo.Move;
+
+import java.util.List;
+
+/**
+ * Uma linha de análise MultiPV: lance da raiz, score (perspectiva das
+ * brancas), profundidade completada e variante principal a partir do lance.
+ */
+public class PvLine {
+    private final Move move;
+    private final int score;
+    private final int depth;
+    private final List<Move> pv;
+
+    public PvLine(Move move, int score, int depth, List<Move> pv) {
+        this.move  = move;
+        this.score = score;
+        this.depth = depth;
+        this.pv    = List.copyOf(pv);
+    }
+
+    public Move getMove()     { return move;  }
+    public int getScore()     { return score; }
+    public int getDepth()     { return depth; }
+    public List<Move> getPv() { return pv;    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " pv " + pv;
+    }
+}
@@ -0,0 +1,43 @@
+package ai;
+
+import Jogo.Move;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lance da raiz com o resultado da última iteração do aprofundamento iterativo.
+ * A cada profundidade a raiz é reordenada: lance da PV primeiro, depois melhor
+ * score e, em empate, a subárvore com mais nós.
+ */
+final class RootMove {
+    final Move move;
+    int score;    // perspectiva das brancas (limite superior/inferior se não melhorou)
+    long nodes;   // nós da subárvore na última iteração
+
+    RootMove(Move move) {
+        this.move = move;
+    }
+
+    static List<RootMove> of(List<Move> moves) {
+        List<RootMove> rootMoves = new ArrayList<>(moves.size());
+        for (Move m : moves) rootMoves.add(new RootMove(m));
+        return rootMoves;
+    }
+
+    /** Reordena a raiz para a próxima iteração, com o lance da PV na frente. */
+    static void sort(List<RootMove> rootMoves, Move pvMove, boolean engineWhite) {
+        Comparator<RootMove> byScore = Comparator.comparingInt((RootMove rm) -> rm.score);
+        if (engineWhite) byScore = byScore.reversed();
+        rootMoves.sort(byScore.thenComparing(
+                Comparator.comparingLong((RootMove rm) -> rm.nodes).reversed()));
+
+        for (int i = 1; i < rootMoves.size(); i++) {
+            if (rootMoves.get(i).move.equals(pvMove)) {
+                rootMoves.add(0, rootMoves.remove(i));
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ai;
+
+import Jogo.Board;
+import Jogo.Move;
+import Jogo.Piece;
+
+import java.util.List;
+
+/**
+ * Notação algébrica curta (SAN), como nos arquivos PGN: "Nf3", "exd5",
+ * "e8=Q", "O-O", "Raxd1+". A leitura resolve o texto contra os lances
+ * legais do {@link MoveGenerator}.
+ */
+public final class San {
+    private San() {}
+
+    /**
+     * @param legal lances legais da posição (do lado a jogar)
+     * @return o lance legal correspondente, ou null se for ilegal ou ambíguo
+     */
+    public static Move parse(Board board, String san, List<Move> legal) {
+        String s = san;
+        while (!s.isEmpty() && "+#!?".indexOf(s.charAt(s.length() - 1)) >= 0) {
+            s = s.substring(0, s.length() - 1);
+        }
+        s = s.replace('0', 'O');
+        if (s.equals("O-O") || s.equals("O-O-O")) {
+            int row = board.isWhiteToMove() ? 0 : 7;
+            int toCol = s.equals("O-O") ? 6 : 2;
+            for (Move m : legal) {
+                Piece p = board.getPiece(m.getFromRow(), m.getFromCol());
+                if ((p == Piece.WHITE_KING || p == Piece.BLACK_KING) && m.getFromRow() == row
+                        && m.getFromCol() == 4 && m.getToRow() == row && m.getToCol() == toCol) {
+                    return m;
+                }
+            }
+            return null;
+        }
+
+        char type = 'P';
+        if (!s.isEmpty() && "KQRBN".indexOf(s.charAt(0)) >= 0) {
+            type = s.charAt(0);
+            s = s.substring(1);
+        }
+        char promo = 0;
+        int eq = s.indexOf('=');
+        if (eq >= 0 && eq + 1 < s.length()) {
+            promo = s.charAt(eq + 1);
+            s = s.substring(0, eq);
+        } else if (type == 'P' && !s.isEmpty() && "QRBN".indexOf(s.charAt(s.length() - 1)) >= 0) {
+            promo = s.charAt(s.length() - 1);
+            s = s.substring(0, s.length() - 1);
+        }
+        s = s.replace("x", "").replace("-", "");
+        if (s.length() < 2) return null;
+        int toCol = s.charAt(s.length() - 2) - 'a';
+        int toRow = s.charAt(s.length() - 1) - '1';
+        String from = s.substring(0, s.length() - 2);   // desambiguação: coluna, linha ou casa
+
+        Move found = null;
+        for (Move m : legal) {
+            if (m.getToRow() != toRow || m.getToCol() != toCol) continue;
+            Piece p = board.getPiece(m.getFromRow(), m.getFromCol());
+            if (p == null || Character.toUpperCase(p.getSymbol()) != type) continue;
+            if (!matchesOrigin(m, from)) continue;
+            Piece mp = m.getPromotion();
+            if (promo == 0 ? mp != null : mp == null || Character.toUpperCase(mp.getSymbol()) != promo) continue;
+            if (found != null) return null;
+            found = m;
+        }
+        return found;
+    }
+
+    /** Texto SAN de um lance legal, com "+" ou "#" quando dá xeque ou mate. */
+    public static String format(Board board, Move move, List<Move> legal) {
+        Piece p = board.getPiece(move.getFromRow(), move.getFromCol());
+        char type = Character.toUpperCase(p.getSymbol());
+        boolean capture = board.getPiece(move.getToRow(), move.getToCol()) != null
+                || (type == 'P' && move.getFromCol() != move.getToCol());
+        StringBuilder sb = new StringBuilder();
+
+        if (type == 'K' && Math.abs(move.getToCol() - move.getFromCol()) == 2) {
+            sb.append(move.getToCol() == 6 ? "O-O" : "O-O-O");
+        } else {
+            if (type == 'P') {
+                if (capture) sb.append((char) ('a' + move.getFromCol()));
+            } else {
+                sb.append(type);
+                boolean ambiguous = false, sameCol = false, sameRow = false;
+                for (Move m : legal) {
+                    if (m.equals(move) || m.getToRow() != move.getToRow() || m.getToCol() != move.getToCol()) continue;
+                    if (board.getPiece(m.getFromRow(), m.getFromCol()) != p) continue;
+                    ambiguous = true;
+                    if (m.getFromCol() == move.getFromCol()) sameCol = true;
+                    if (m.getFromRow() == move.getFromRow()) sameRow = true;
+                }
+                if (ambiguous) {
+                    if (!sameCol) sb.append((char) ('a' + move.getFromCol()));
+                    else if (!sameRow) sb.append((char) ('1' + move.getFromRow()));
+                    else sb.append((char) ('a' + move.getFromCol())).append((char) ('1' + move.getFromRow()));
+                }
+            }
+            if (capture) sb.append('x');
+            sb.append((char) ('a' + move.getToCol())).append((char) ('1' + move.getToRow()));
+            if (move.getPromotion() != null) {
+                sb.append('=').append(Character.toUpperCase(move.getPromotion().getSymbol()));
+            }
+        }
+
+        Board after = new Board(board);
+        after.makeMove(move);
+        if (after.isCheckmate()) sb.append('#');
+        else if (after.isInCheck(after.isWhiteToMove())) sb.append('+');
+        return sb.toString();
+    }
+
+    private static boolean matchesOrigin(Move m, String from) {
+        for (char ch : from.toCharArray()) {
+            if (ch >= 'a' && ch <= 'h' && m.getFromCol() != ch - 'a') return false;
+            if (ch >= '1' && ch <= '8' && m.getFromRow() != ch - '1') return false;
+        }
+        return true;
+    }
+}
@@ -7,7 +7,7 @@ import Jogo.Piece;
 
 import java.util.List;
 
-public class SearchEngine {
+public class SearchEngine implements Engine {
     private static final int PAWN   = 100;
     private static final int KNIGHT = 320;
     private static final int BISHOP = 330;
@@ -16,11 +16,37 @@ public class SearchEngine {
     private static final int KING   = 20000;
 
     private final MoveGenerator gen;
+    private boolean quiet;
 
     public SearchEngine() {
         this.gen = new MoveGenerator();
     }
 
+    @Override
+    public String getName() {
+        return "SearchEngine";
+    }
+
+    /** Cala as mensagens de busca (partidas em lote). */
+    @Override
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /** Só informa o lance; aceita profundidade fixa ou tempo, sem limite de nós. */
+    @Override
+    public EngineResult search(Board board, SearchRequest request) {
+        SearchLimits limits = request.getLimits();
+        boolean white = board.isWhiteToMove();
+        if (limits.getDepth() > 0) {
+            return EngineResult.ofMove(findBestMoveAlphaBeta(board, white, limits.getDepth()));
+        }
+        if (limits.getTimeMs() > 0) {
+            return EngineResult.ofMove(findBestMoveAlphaBetaTimed(board, white, limits.getTimeMs()));
+        }
+        throw new IllegalArgumentException(getName() + " precisa de limite de profundidade ou de tempo");
+    }
+
     /**
      * Find the best move within a time limit (ms) using iterative deepening
      * with plain minimax.
@@ -114,7 +140,7 @@ public class SearchEngine {
                     int val = alphabetaTimed(next, depth - 1, !engineWhite,
                             Integer.MIN_VALUE, Integer.MAX_VALUE,
                             start, limit) + depth;
-                    System.out.println("Move " + m + " -> score " + val + " (depth=" + depth + ")");
+                    if (!quiet) System.out.println("Move " + m + " -> score " + val + " (depth=" + depth + ")");
 
                     if (engineWhite) {
                         if (val > alpha) {
@@ -0,0 +1,45 @@
+package ai;
+
+/**
+ * Limites de uma busca: nós, profundidade e/ou tempo (0 = sem limite).
+ * Buscas limitadas só por nós ou profundidade não consultam o relógio e
+ * são determinísticas, então servem para reproduzir partidas e comparar
+ * versões independentemente da carga da máquina. Como no limite de tempo,
+ * o limite de nós só vale depois da profundidade mínima de cada motor.
+ */
+public final class SearchLimits {
+    private final long nodes;
+    private final int depth;
+    private final long timeMs;
+
+    public SearchLimits(long nodes, int depth, long timeMs) {
+        if (nodes < 0 || depth < 0 || timeMs < 0) {
+            throw new IllegalArgumentException("Limites de busca não podem ser negativos");
+        }
+        this.nodes  = nodes;
+        this.depth  = depth;
+        this.timeMs = timeMs;
+    }
+
+    public static SearchLimits nodes(long nodes) { return new SearchLimits(nodes, 0, 0); }
+    public static SearchLimits depth(int depth)  { return new SearchLimits(0, depth, 0); }
+    public static SearchLimits time(long timeMs) { return new SearchLimits(0, 0, timeMs); }
+
+    public long getNodes()  { return nodes;  }
+    public int getDepth()   { return depth;  }
+    public long getTimeMs() { return timeMs; }
+
+    /** Sem limite de tempo o resultado só depende da posição e do estado da tabela. */
+    public boolean isDeterministic() {
+        return timeMs == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (nodes > 0)  sb.append("nodes=").append(nodes).append(' ');
+        if (depth > 0)  sb.append("depth=").append(depth).append(' ');
+        if (timeMs > 0) sb.append("time=").append(timeMs).append("ms ");
+        return sb.length() == 0 ? "infinite" : sb.toString().trim();
+    }
+}
@@ -0,0 +1,36 @@
+package ai;
+
+/**
+ * Pedido de busca para um {@link Engine}: limites, número de threads e
+ * tamanho da tabela de transposição. Os motores atuais são de uma thread
+ * só; motores sem tabela ignoram o tamanho.
+ */
+public final class SearchRequest {
+    public static final int DEFAULT_HASH_MB = 16;
+
+    private final SearchLimits limits;
+    private final int threads;
+    private final int hashMegabytes;
+
+    public SearchRequest(SearchLimits limits, int threads, int hashMegabytes) {
+        if (threads < 1 || hashMegabytes < 1) {
+            throw new IllegalArgumentException("threads e hash devem ser >= 1");
+        }
+        this.limits        = limits;
+        this.threads       = threads;
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    public static SearchRequest of(SearchLimits limits) {
+        return new SearchRequest(limits, 1, DEFAULT_HASH_MB);
+    }
+
+    public SearchLimits getLimits() { return limits;        }
+    public int getThreads()         { return threads;       }
+    public int getHashMegabytes()   { return hashMegabytes; }
+
+    @Override
+    public String toString() {
+        return limits + " threads=" + threads + " hash=" + hashMegabytes + "MB";
+    }
+}
@@ -0,0 +1,78 @@
+package ai;
+
+import Jogo.Move;
+import Jogo.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de transposição de tamanho fixo indexada pelo hash Zobrist do
+ * {@link Jogo.Board}. Cada entrada ocupa dois longs: a chave e os dados
+ * empacotados (score, profundidade, tipo de limite e melhor lance).
+ * Scores sempre na perspectiva das brancas, como nos motores.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;   // score real >= score guardado
+    public static final int UPPER = 3;   // score real <= score guardado
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /** @param megabytes tamanho aproximado; arredondado para potência de 2 entradas */
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(1L, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    public void store(long key, int depth, int score, int flag, Move best) {
+        int i = (int) key & mask;
+        // mesma posição já pesquisada mais fundo: mantém a entrada antiga
+        if (keys[i] == key && depthOf(data[i]) > depth) return;
+        keys[i] = key;
+        data[i] = ((long) score << 32)
+                | ((long) (depth & 0xFF) << 24)
+                | ((long) flag << 16)
+                | (best != null ? pack(best) : 0);
+    }
+
+    /** @return dados empacotados da entrada, ou 0 se a posição não estiver na tabela */
+    public long probe(long key) {
+        int i = (int) key & mask;
+        return keys[i] == key ? data[i] : 0L;
+    }
+
+    public static int scoreOf(long entry) { return (int) (entry >> 32); }
+    public static int depthOf(long entry) { return (int) (entry >>> 24) & 0xFF; }
+    public static int flagOf(long entry)  { return (int) (entry >>> 16) & 0x3; }
+
+    /** @return melhor lance da entrada, ou null */
+    public static Move moveOf(long entry) {
+        int packed = (int) entry & 0xFFFF;
+        if (packed == 0) return null;
+        int from = packed & 0x3F;
+        int to = (packed >>> 6) & 0x3F;
+        int promo = packed >>> 12;
+        return new Move(from >> 3, from & 7, to >> 3, to & 7,
+                promo == 0 ? null : PIECES[promo - 1]);
+    }
+
+    /** Lance em 16 bits: origem (6), destino (6), promoção (4, ordinal + 1). */
+    static int pack(Move m) {
+        int from = m.getFromRow() * 8 + m.getFromCol();
+        int to = m.getToRow() * 8 + m.getToCol();
+        int promo = m.getPromotion() == null ? 0 : m.getPromotion().ordinal() + 1;
+        return from | (to << 6) | (promo << 12);
+    }
+}